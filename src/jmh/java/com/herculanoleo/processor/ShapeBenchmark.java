@@ -0,0 +1,70 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Run with -prof gc, gc.alloc.rate.norm of the typeOf benchmarks must stay at ~0 B/op
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    private final ProcessorShape processorShape = new ProcessorShape();
+
+    private RectangleShape rectangle;
+
+    private TriangleShape triangle;
+
+    private PolygonShape polygon;
+
+    @Setup
+    public void setup() {
+        rectangle = new RectangleShape(pointOf(0, 0), pointOf(4, 0), pointOf(4, 2), pointOf(0, 2));
+        triangle = new TriangleShape(pointOf(0, 0), pointOf(8, 0), pointOf(5, 9));
+
+        var x = new double[512];
+        var y = new double[512];
+        for (var i = 0; i < x.length; i++) {
+            x[i] = Math.cos(2 * Math.PI * i / x.length) * 100;
+            y[i] = Math.sin(2 * Math.PI * i / x.length) * 100;
+        }
+        polygon = new PolygonShape(x, y);
+    }
+
+    @Benchmark
+    public ShapeType typeOfRectangle() {
+        return processorShape.typeOf(rectangle);
+    }
+
+    @Benchmark
+    public ShapeType typeOfTriangle() {
+        return processorShape.typeOf(triangle);
+    }
+
+    @Benchmark
+    public ShapeType typeOfPolygon() {
+        return processorShape.typeOf(polygon);
+    }
+
+    @Benchmark
+    public BigDecimal areaOfRectangle() {
+        return processorShape.areaOf(rectangle);
+    }
+
+    @Benchmark
+    public BigDecimal areaOfTriangle() {
+        return processorShape.areaOf(triangle);
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+}
@@ -0,0 +1,191 @@
+package com.herculanoleo.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+    Seeded synthetic file tree, the same parameters always give the same tree byte for byte.
+
+    Every file is a pure function of the seed and its index, so nothing is kept per file and trees of millions of
+    files take constant memory. Small files follow a log-normal size distribution around the median, the first
+    largeFiles files have largeFileSize bytes instead. A duplicate copies the content of an earlier small file that
+    is not a duplicate itself. Directories are depth levels of fanout children each, the files are spread over the
+    leaves in consecutive index ranges, so each leaf is created once and filled before the next one.
+*/
+public class FileTreeGenerator {
+
+    protected static final int WRITE_BUFFER_BYTES = 1048576;
+
+    protected static final double MAX_SIZE_OVER_MEDIAN = 64;
+
+    protected final long seed;
+
+    protected final long files;
+
+    protected final int depth;
+
+    protected final int fanout;
+
+    protected final long medianFileSize;
+
+    protected final double sizeSigma;
+
+    protected final long largeFiles;
+
+    protected final long largeFileSize;
+
+    protected final double duplicateRatio;
+
+    protected final long filesPerLeaf;
+
+    public FileTreeGenerator(final long seed,
+                             final long files,
+                             final int depth,
+                             final int fanout,
+                             final long medianFileSize,
+                             final double sizeSigma,
+                             final long largeFiles,
+                             final long largeFileSize,
+                             final double duplicateRatio) {
+        if (files < 0 || depth < 0 || fanout <= 0 || medianFileSize < 0 || largeFiles > files || duplicateRatio < 0 || duplicateRatio >= 1) {
+            throw new IllegalArgumentException("Invalid file tree parameters");
+        }
+        this.seed = seed;
+        this.files = files;
+        this.depth = depth;
+        this.fanout = fanout;
+        this.medianFileSize = medianFileSize;
+        this.sizeSigma = sizeSigma;
+        this.largeFiles = largeFiles;
+        this.largeFileSize = largeFileSize;
+        this.duplicateRatio = duplicateRatio;
+        this.filesPerLeaf = Math.max(1, Math.ceilDiv(files, leavesOf(files, depth, fanout)));
+    }
+
+    /*
+        Total bytes written
+    */
+    public long generate(final Path root) throws IOException {
+        var buffer = new byte[WRITE_BUFFER_BYTES];
+        var bytes = 0L;
+        Path lastDirectory = null;
+
+        for (var index = 0L; index < files; index++) {
+            var directory = directoryOf(root, index);
+            if (!directory.equals(lastDirectory)) {
+                Files.createDirectories(directory);
+                lastDirectory = directory;
+            }
+
+            var content = contentOf(index);
+            bytes += write(directory.resolve(String.format("f%s.bin", index)), content, buffer);
+        }
+
+        return bytes;
+    }
+
+    /*
+        The leaf of the index range holding the file, its digits in base fanout name the directories
+    */
+    protected Path directoryOf(final Path root, final long index) {
+        var leaf = index / filesPerLeaf;
+        var names = new String[depth];
+        for (var level = depth - 1; level >= 0; level--) {
+            names[level] = "d" + leaf % fanout;
+            leaf /= fanout;
+        }
+
+        var directory = root;
+        for (var name : names) {
+            directory = directory.resolve(name);
+        }
+        return directory;
+    }
+
+    /*
+        fanout^depth, capped at the file count since more leaves than files would stay empty
+    */
+    protected static long leavesOf(final long files, final int depth, final int fanout) {
+        var leaves = 1L;
+        for (var level = 0; level < depth && leaves < files; level++) {
+            leaves = leaves > files / fanout ? files : leaves * fanout;
+        }
+        return Math.max(1, Math.min(leaves, files));
+    }
+
+    /*
+        Index of the file whose size and bytes this one has, itself unless it is a duplicate.
+        Large files are never duplicated.
+    */
+    protected long contentOf(long index) {
+        while (index > largeFiles) {
+            var random = randomOf(index, 2);
+            if (random.nextDouble() >= duplicateRatio) {
+                break;
+            }
+            index = random.nextLong(largeFiles, index);
+        }
+        return index;
+    }
+
+    protected long sizeOf(final long content) {
+        if (content < largeFiles) {
+            return largeFileSize;
+        }
+        var size = medianFileSize * Math.exp(sizeSigma * gaussianOf(randomOf(content, 3)));
+        return (long) Math.min(size, medianFileSize * MAX_SIZE_OVER_MEDIAN);
+    }
+
+    protected long write(final Path file, final long content, final byte[] buffer) throws IOException {
+        var size = sizeOf(content);
+        var random = randomOf(content, 4);
+
+        try (var output = Files.newOutputStream(file)) {
+            for (var remaining = size; remaining > 0; ) {
+                var length = (int) Math.min(remaining, buffer.length);
+                fill(random, buffer, length);
+                output.write(buffer, 0, length);
+                remaining -= length;
+            }
+        }
+        return size;
+    }
+
+    /*
+        Independent stream per file and purpose, the seeds are mixed since close SplittableRandom seeds give
+        overlapping streams
+    */
+    protected SplittableRandom randomOf(final long index, final int purpose) {
+        return new SplittableRandom(mix(mix(seed ^ index) + purpose));
+    }
+
+    /*
+        Only the first length bytes, small files would pay for the whole buffer otherwise
+    */
+    protected static void fill(final SplittableRandom random, final byte[] buffer, final int length) {
+        for (var i = 0; i < length; ) {
+            var value = random.nextLong();
+            for (var b = 0; b < Long.BYTES && i < length; b++, i++) {
+                buffer[i] = (byte) value;
+                value >>>= Byte.SIZE;
+            }
+        }
+    }
+
+    /*
+        Murmur3 finalizer
+    */
+    protected static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    protected static double gaussianOf(final SplittableRandom random) {
+        var u = 1 - random.nextDouble();
+        var v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+}
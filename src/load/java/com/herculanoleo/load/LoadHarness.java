@@ -0,0 +1,299 @@
+package com.herculanoleo.load;
+
+import com.herculanoleo.dataset.ShapeDataset;
+import com.herculanoleo.metrics.LatencyHistogram;
+import com.herculanoleo.models.file.ProcessFileResult;
+import com.herculanoleo.models.metrics.LatencySnapshot;
+import com.herculanoleo.processor.ProcessorFile;
+import com.herculanoleo.processor.ProcessorShape;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/*
+    End to end load run of both processors on seeded synthetic data, for comparing releases.
+
+        mvn -P load test-compile exec:exec -Dload.args="files=5000000 largeFiles=2 largeFileSize=53687091200 shapes=1000000000"
+
+    Arguments are key=value, see DEFAULTS. Every run generates its data again from the seed into workDir, hashes the
+    tree with processFolder, then runs resultOf over the shape dataset on every processor. Each phase records its
+    throughput, peak RSS and heap, GC count and time and, for the processing phases, the per file or per shape
+    latency. The report is one JSON document, the parameters in it are enough to reproduce the run.
+*/
+public class LoadHarness {
+
+    protected static final Map<String, String> DEFAULTS = defaults();
+
+    protected static final int SHAPES_PER_TASK = 65536;
+
+    protected final Map<String, String> parameters;
+
+    protected LoadHarness(final Map<String, String> parameters) {
+        this.parameters = parameters;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        var parameters = new LinkedHashMap<>(DEFAULTS);
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (separator <= 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                System.err.println("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+                System.exit(2);
+            }
+            parameters.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        var report = new LoadHarness(parameters).run();
+        var reportPath = Path.of(parameters.get("report"));
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        Files.writeString(reportPath, report, StandardCharsets.UTF_8);
+        System.out.println(report);
+    }
+
+    protected static Map<String, String> defaults() {
+        var defaults = new LinkedHashMap<String, String>();
+        defaults.put("seed", "42");
+        defaults.put("phases", "files,shapes");
+        defaults.put("files", "10000");
+        defaults.put("depth", "3");
+        defaults.put("fanout", "8");
+        defaults.put("medianFileSize", "16384");
+        defaults.put("sizeSigma", "1.5");
+        defaults.put("largeFiles", "0");
+        defaults.put("largeFileSize", "1073741824");
+        defaults.put("duplicates", "0.1");
+        defaults.put("shapes", "1000000");
+        defaults.put("circles", "0.2");
+        defaults.put("rectangles", "0.3");
+        defaults.put("triangles", "0.3");
+        defaults.put("polygonVertices", "16");
+        defaults.put("coordinates", "1000");
+        defaults.put("degenerate", "0.01");
+        defaults.put("workDir", "target/load");
+        defaults.put("keep", "false");
+        defaults.put("report", "target/load-report.json");
+        return Collections.unmodifiableMap(defaults);
+    }
+
+    protected String run() throws Exception {
+        var workDir = Path.of(parameters.get("workDir"));
+        FileUtils.deleteDirectory(workDir.toFile());
+        Files.createDirectories(workDir);
+
+        var phases = new ArrayList<PhaseResult>();
+        try {
+            var enabled = Set.of(parameters.get("phases").split(","));
+            if (enabled.contains("files")) {
+                runFiles(workDir, phases);
+            }
+            if (enabled.contains("shapes")) {
+                runShapes(workDir, phases);
+            }
+        } finally {
+            if (!Boolean.parseBoolean(parameters.get("keep"))) {
+                FileUtils.deleteDirectory(workDir.toFile());
+            }
+        }
+
+        return jsonOf(phases);
+    }
+
+    protected void runFiles(final Path workDir, final List<PhaseResult> phases) throws Exception {
+        var tree = Files.createDirectories(workDir.resolve("tree"));
+        var results = Files.createDirectories(workDir.resolve("results"));
+        var generator = new FileTreeGenerator(
+                longOf("seed"),
+                longOf("files"),
+                (int) longOf("depth"),
+                (int) longOf("fanout"),
+                longOf("medianFileSize"),
+                doubleOf("sizeSigma"),
+                longOf("largeFiles"),
+                longOf("largeFileSize"),
+                doubleOf("duplicates")
+        );
+
+        var bytes = new long[1];
+        phases.add(measure("generate-files", longOf("files"), null, () -> bytes[0] = generator.generate(tree)).withBytes(bytes[0]));
+
+        var processorFile = new TimedProcessorFile();
+        phases.add(measure("process-folder", longOf("files"), processorFile.latencies,
+                () -> processorFile.processFolder(tree.toFile(), results.toFile())).withBytes(bytes[0]));
+    }
+
+    protected void runShapes(final Path workDir, final List<PhaseResult> phases) throws Exception {
+        var path = workDir.resolve("shapes.shpd");
+        var generator = new ShapeDatasetGenerator(
+                longOf("seed"),
+                longOf("shapes"),
+                doubleOf("circles"),
+                doubleOf("rectangles"),
+                doubleOf("triangles"),
+                (int) longOf("polygonVertices"),
+                (int) longOf("coordinates"),
+                doubleOf("degenerate")
+        );
+
+        phases.add(measure("generate-shapes", longOf("shapes"), null, () -> generator.generate(path)).withBytes(Files.size(path)));
+
+        try (var dataset = ShapeDataset.open(path)) {
+            var latencies = new LatencyHistogram();
+            phases.add(measure("process-shapes", dataset.size(), latencies, () -> processShapes(dataset, latencies)).withBytes(Files.size(path)));
+        }
+    }
+
+    /*
+        Contiguous ranges handed out to one platform thread per processor
+    */
+    protected void processShapes(final ShapeDataset dataset, final LatencyHistogram latencies) {
+        var processorShape = new ProcessorShape();
+        var cursor = new AtomicLong();
+        var failures = new LongAdder();
+        var threads = Runtime.getRuntime().availableProcessors();
+
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    for (var from = cursor.getAndAdd(SHAPES_PER_TASK); from < dataset.size(); from = cursor.getAndAdd(SHAPES_PER_TASK)) {
+                        var to = Math.min(dataset.size(), from + SHAPES_PER_TASK);
+                        for (var index = from; index < to; index++) {
+                            var startAt = System.nanoTime();
+                            if (!processorShape.resultOf(dataset.get(index).toShape()).success()) {
+                                failures.increment();
+                            }
+                            latencies.record(System.nanoTime() - startAt);
+                        }
+                    }
+                });
+            }
+        }
+
+        System.err.printf("process-shapes: %s of %s shapes failed%n", failures.sum(), dataset.size());
+    }
+
+    protected PhaseResult measure(final String name, final long items, final LatencyHistogram latencies, final Phase phase) throws Exception {
+        System.err.printf("%s: started%n", name);
+
+        ResourceSampler sampler;
+        long nanos;
+        try (var resources = new ResourceSampler()) {
+            sampler = resources;
+            var startAt = System.nanoTime();
+            phase.run();
+            nanos = System.nanoTime() - startAt;
+        }
+
+        var result = new PhaseResult(
+                name,
+                items,
+                0,
+                nanos / 1e9,
+                Objects.isNull(latencies) ? null : latencies.snapshot(),
+                sampler.peakRssBytes(),
+                sampler.peakHeapBytes(),
+                sampler.gcCount(),
+                sampler.gcMillis()
+        );
+        System.err.printf("%s: finished in %.3fs%n", name, result.seconds());
+        return result;
+    }
+
+    protected String jsonOf(final List<PhaseResult> phases) {
+        var runtime = ManagementFactory.getRuntimeMXBean();
+        var environment = String.format(
+                "{\"javaVersion\":%s,\"vm\":%s,\"os\":%s,\"processors\":%s,\"maxHeapBytes\":%s,\"jvmArguments\":%s}",
+                quote(System.getProperty("java.version")),
+                quote(runtime.getVmName() + " " + runtime.getVmVersion()),
+                quote(System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch")),
+                Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory(),
+                runtime.getInputArguments().stream().map(LoadHarness::quote).collect(Collectors.joining(",", "[", "]"))
+        );
+
+        return String.format(
+                "{\"formatVersion\":1,\"timestamp\":%s,\"environment\":%s,\"parameters\":%s,\"phases\":%s}",
+                quote(Instant.now().toString()),
+                environment,
+                parameters.entrySet().stream().map(entry -> quote(entry.getKey()) + ":" + quote(entry.getValue())).collect(Collectors.joining(",", "{", "}")),
+                phases.stream().map(PhaseResult::toJson).collect(Collectors.joining(",", "[", "]"))
+        );
+    }
+
+    protected long longOf(final String key) {
+        return Long.parseLong(parameters.get(key));
+    }
+
+    protected double doubleOf(final String key) {
+        return Double.parseDouble(parameters.get(key));
+    }
+
+    /*
+        Parameters and system properties only, no control characters to escape
+    */
+    protected static String quote(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    @FunctionalInterface
+    protected interface Phase {
+        void run() throws Exception;
+    }
+
+    protected record PhaseResult(String name,
+                                 long items,
+                                 long bytes,
+                                 double seconds,
+                                 LatencySnapshot latency,
+                                 long peakRssBytes,
+                                 long peakHeapBytes,
+                                 long gcCount,
+                                 long gcMillis
+    ) {
+        protected PhaseResult withBytes(final long bytes) {
+            return new PhaseResult(name, items, bytes, seconds, latency, peakRssBytes, peakHeapBytes, gcCount, gcMillis);
+        }
+
+        protected String toJson() {
+            var latencyJson = Objects.isNull(latency) ? "null" : String.format(Locale.ROOT,
+                    "{\"count\":%s,\"meanNanos\":%.1f,\"maxNanos\":%s,\"p50Nanos\":%s,\"p90Nanos\":%s,\"p99Nanos\":%s,\"p999Nanos\":%s}",
+                    latency.count(), latency.meanNanos(), latency.maxNanos(),
+                    latency.p50Nanos(), latency.p90Nanos(), latency.p99Nanos(), latency.p999Nanos()
+            );
+
+            return String.format(Locale.ROOT,
+                    "{\"name\":%s,\"items\":%s,\"bytes\":%s,\"seconds\":%.3f,\"itemsPerSecond\":%.1f,\"bytesPerSecond\":%.1f,"
+                            + "\"latency\":%s,\"peakRssBytes\":%s,\"peakHeapBytes\":%s,\"gcCount\":%s,\"gcMillis\":%s}",
+                    quote(name), items, bytes, seconds, items / seconds, bytes / seconds,
+                    latencyJson, peakRssBytes, peakHeapBytes, gcCount, gcMillis
+            );
+        }
+    }
+
+    /*
+        Wall time of every file, from the open to the consolidated hash
+    */
+    protected static class TimedProcessorFile extends ProcessorFile {
+
+        protected final LatencyHistogram latencies = new LatencyHistogram();
+
+        @Override
+        protected ProcessFileResult processFile(final File file) {
+            var startAt = System.nanoTime();
+            try {
+                return super.processFile(file);
+            } finally {
+                latencies.record(System.nanoTime() - startAt);
+            }
+        }
+    }
+}
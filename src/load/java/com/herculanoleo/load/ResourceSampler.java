@@ -0,0 +1,117 @@
+package com.herculanoleo.load;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/*
+    Peak resident set size and heap of the process while a phase runs, plus the GC count and time it caused.
+
+    RSS comes from /proc/self/status and is -1 where that file does not exist. The heap is sampled, so a peak
+    shorter than the interval can be missed, the GC beans are read exactly at start and close.
+*/
+public class ResourceSampler implements AutoCloseable {
+
+    protected static final Duration INTERVAL = Duration.ofMillis(50);
+
+    protected static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    protected final LongAccumulator peakRssBytes = new LongAccumulator(Math::max, -1);
+
+    protected final LongAccumulator peakHeapBytes = new LongAccumulator(Math::max, 0);
+
+    protected final long gcCountAtStart;
+
+    protected final long gcMillisAtStart;
+
+    protected final Thread sampler;
+
+    protected long gcCount;
+
+    protected long gcMillis;
+
+    public ResourceSampler() {
+        gcCountAtStart = collectionCount();
+        gcMillisAtStart = collectionMillis();
+        sample();
+        sampler = Thread.ofPlatform().name("resource-sampler").daemon().start(this::run);
+    }
+
+    public long peakRssBytes() {
+        return peakRssBytes.get();
+    }
+
+    public long peakHeapBytes() {
+        return peakHeapBytes.get();
+    }
+
+    public long gcCount() {
+        return Math.max(0, gcCount);
+    }
+
+    public long gcMillis() {
+        return Math.max(0, gcMillis);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+        sample();
+
+        gcCount = collectionCount() - gcCountAtStart;
+        gcMillis = collectionMillis() - gcMillisAtStart;
+    }
+
+    protected void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            sample();
+            try {
+                Thread.sleep(INTERVAL);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    protected void sample() {
+        peakHeapBytes.accumulate(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        peakRssBytes.accumulate(rssBytes());
+    }
+
+    /*
+        VmHWM would be the kernel's own peak, but it covers the whole process life and not only the phase
+    */
+    protected static long rssBytes() {
+        try {
+            for (var line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            return -1;
+        }
+        return -1;
+    }
+
+    /*
+        Beans report -1 when they do not know
+    */
+    protected static long collectionCount() {
+        return collectors().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    protected static long collectionMillis() {
+        return collectors().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+    }
+
+    protected static List<GarbageCollectorMXBean> collectors() {
+        return ManagementFactory.getGarbageCollectorMXBeans();
+    }
+}
@@ -0,0 +1,109 @@
+package com.herculanoleo.load;
+
+import com.herculanoleo.dataset.ShapeDatasetWriter;
+import com.herculanoleo.models.shape.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+    Seeded synthetic shape dataset written in the DATASET format, so billion-shape runs read it memory mapped.
+
+    Shapes are circles, axis aligned rectangles, triangles and convex polygons of 5 to maxPolygonVertices vertices
+    in the given proportions, on integer coordinates within +-coordinateRange. A share of them is degenerate
+    (collinear triangles, zero sized rectangles) to keep the failure paths in the measurement.
+*/
+public class ShapeDatasetGenerator {
+
+    protected final long seed;
+
+    protected final long shapes;
+
+    protected final double circleRatio;
+
+    protected final double rectangleRatio;
+
+    protected final double triangleRatio;
+
+    protected final int maxPolygonVertices;
+
+    protected final int coordinateRange;
+
+    protected final double degenerateRatio;
+
+    public ShapeDatasetGenerator(final long seed,
+                                 final long shapes,
+                                 final double circleRatio,
+                                 final double rectangleRatio,
+                                 final double triangleRatio,
+                                 final int maxPolygonVertices,
+                                 final int coordinateRange,
+                                 final double degenerateRatio) {
+        if (shapes < 0 || circleRatio + rectangleRatio + triangleRatio > 1 || maxPolygonVertices < 5 || coordinateRange <= 0) {
+            throw new IllegalArgumentException("Invalid shape dataset parameters");
+        }
+        this.seed = seed;
+        this.shapes = shapes;
+        this.circleRatio = circleRatio;
+        this.rectangleRatio = rectangleRatio;
+        this.triangleRatio = triangleRatio;
+        this.maxPolygonVertices = maxPolygonVertices;
+        this.coordinateRange = coordinateRange;
+        this.degenerateRatio = degenerateRatio;
+    }
+
+    public void generate(final Path path) {
+        var random = new SplittableRandom(seed);
+
+        try (var writer = ShapeDatasetWriter.append(path)) {
+            for (var i = 0L; i < shapes; i++) {
+                writer.write(shapeOf(random));
+            }
+        }
+    }
+
+    protected Shape shapeOf(final SplittableRandom random) {
+        var kind = random.nextDouble();
+        var degenerate = random.nextDouble() < degenerateRatio;
+        var x = random.nextInt(-coordinateRange, coordinateRange);
+        var y = random.nextInt(-coordinateRange, coordinateRange);
+        var size = degenerate ? 0 : random.nextInt(1, coordinateRange);
+
+        if (kind < circleRatio) {
+            return new CircleShape(pointOf(x, y), pointOf(x + Math.max(1, size), y));
+        }
+        if (kind < circleRatio + rectangleRatio) {
+            var height = degenerate ? 0 : random.nextInt(1, coordinateRange);
+            return new RectangleShape(pointOf(x, y), pointOf(x + size, y), pointOf(x + size, y + height), pointOf(x, y + height));
+        }
+        if (kind < circleRatio + rectangleRatio + triangleRatio) {
+            var apex = degenerate ? 2 * size : random.nextInt(-coordinateRange, coordinateRange);
+            return new TriangleShape(pointOf(x, y), pointOf(x + size, y + size), pointOf(x + apex, degenerate ? y + apex : y - size));
+        }
+        return polygonOf(random, x, y, Math.max(1, size));
+    }
+
+    /*
+        Vertices on a circle at increasing angles, always convex and counter-clockwise. Rounding to the grid moves a
+        vertex by up to half a unit, the radius is at least vertices^2 / 2 so the bulge of the circle between two
+        neighbours, about radius * pi^2 / (2 * vertices^2), stays well above it and no vertex turns flat or reflex.
+    */
+    protected PolygonShape polygonOf(final SplittableRandom random, final int centerX, final int centerY, final int size) {
+        var vertices = random.nextInt(5, maxPolygonVertices + 1);
+        var radius = Math.max(size, vertices * vertices / 2);
+        var xs = new double[vertices];
+        var ys = new double[vertices];
+
+        for (var i = 0; i < vertices; i++) {
+            var angle = 2 * Math.PI * (i + random.nextDouble() * 0.5) / vertices;
+            xs[i] = centerX + Math.rint(radius * Math.cos(angle));
+            ys[i] = centerY + Math.rint(radius * Math.sin(angle));
+        }
+        return new PolygonShape(xs, ys);
+    }
+
+    protected static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+}
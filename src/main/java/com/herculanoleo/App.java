@@ -1,18 +1,30 @@
 package com.herculanoleo;
 
+import com.herculanoleo.entrypoint.CommandEntrypoint;
 import com.herculanoleo.entrypoint.FileEntrypoint;
+import com.herculanoleo.entrypoint.ServerEntrypoint;
 import com.herculanoleo.entrypoint.ShapeEntrypoint;
-import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.LogManager;
 
 import java.util.Scanner;
 
-@Log4j2
+/*
+    Without arguments the interactive menu, with arguments the headless CommandEntrypoint.
+    No static logger here, log4j2 only starts when something logs.
+*/
 public class App {
 
     public static void main(String[] args) {
-        entrypoint();
+        if (args.length == 0) {
+            entrypoint();
+        } else {
+            System.exit(new CommandEntrypoint(System.out, System.err).run(args));
+        }
     }
 
+    /*
+        Every menu reads from the same Scanner, a second one on System.in would swallow the buffered input of the first
+    */
     public static void entrypoint() {
         var scanner = new Scanner(System.in);
         var selectedOption = -1;
@@ -22,20 +34,22 @@ public class App {
             System.out.println("Select the your desire mode");
             System.out.println("1 - Shape");
             System.out.println("2 - File");
+            System.out.println("3 - Server");
             System.out.println("0 - Exit");
 
             try {
                 selectedOption = scanner.nextInt();
 
                 switch (selectedOption) {
-                    case 1 -> ShapeEntrypoint.shared.start();
-                    case 2 -> FileEntrypoint.shared.start();
+                    case 1 -> new ShapeEntrypoint(scanner).start();
+                    case 2 -> new FileEntrypoint(scanner).start();
+                    case 3 -> new ServerEntrypoint(scanner).start();
                     case 0 -> System.out.println("The program has been terminated!");
                     default -> throw new RuntimeException("Invalid option");
                 }
             } catch (Exception ex) {
                 System.out.println("Please enter with a valid option");
-                log.error("An error occurred", ex);
+                LogManager.getLogger(App.class).error("An error occurred", ex);
             }
         }
     }
@@ -0,0 +1,30 @@
+package com.herculanoleo.analytics;
+
+/*
+    Neumaier summation, keeps the rounding error of every addition so millions of areas add up without drifting
+*/
+public class CompensatedSum {
+
+    protected double sum;
+
+    protected double compensation;
+
+    public void add(final double value) {
+        var total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    public void merge(final CompensatedSum other) {
+        add(other.sum);
+        add(other.compensation);
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+}
@@ -0,0 +1,137 @@
+package com.herculanoleo.analytics;
+
+import java.util.Arrays;
+
+/*
+    Logarithmic bucket sketch (DDSketch): every quantile is returned within the relative accuracy of the true value,
+    memory only grows with the log of the value range and two sketches merge by adding their buckets
+*/
+public class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    protected static final double MIN_INDEXABLE_VALUE = 1e-9;
+
+    protected final double gamma;
+
+    protected final double logGamma;
+
+    protected long[] counts = new long[0];
+
+    protected int minIndex;
+
+    protected long zeroCount;
+
+    protected long count;
+
+    protected double min = Double.POSITIVE_INFINITY;
+
+    protected double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(final double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("The relative accuracy must be between 0 and 1");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /*
+        Only non negative values are accepted, areas and perimeters cannot be negative
+    */
+    public void add(final double value) {
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Invalid sketch value " + value);
+        }
+
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            increment(indexOf(value), 1);
+        }
+    }
+
+    public void merge(final QuantileSketch other) {
+        if (Double.compare(gamma, other.gamma) != 0) {
+            throw new IllegalArgumentException("Sketches with different accuracy cannot be merged");
+        }
+
+        for (var i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] > 0) {
+                increment(other.minIndex + i, other.counts[i]);
+            }
+        }
+
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double quantile(final double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile == 0) {
+            return min;
+        }
+        if (quantile == 1) {
+            return max;
+        }
+
+        var rank = (long) (quantile * (count - 1));
+
+        if (rank < zeroCount) {
+            return min;
+        }
+
+        var seen = zeroCount;
+        for (var i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                var value = 2 * Math.pow(gamma, minIndex + i) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+
+        return max;
+    }
+
+    protected int indexOf(final double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    protected void increment(final int index, final long amount) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            minIndex = index - counts.length / 2;
+        }
+
+        if (index < minIndex) {
+            var shift = minIndex - index + counts.length / 2;
+            var grown = new long[counts.length + shift];
+            System.arraycopy(counts, 0, grown, shift, counts.length);
+            counts = grown;
+            minIndex -= shift;
+        } else if (index >= minIndex + counts.length) {
+            counts = Arrays.copyOf(counts, index - minIndex + 1 + counts.length / 2);
+        }
+
+        counts[index - minIndex] += amount;
+    }
+}
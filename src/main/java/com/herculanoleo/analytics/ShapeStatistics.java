@@ -0,0 +1,88 @@
+package com.herculanoleo.analytics;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.models.shape.ShapeType;
+import com.herculanoleo.processor.ProcessorShape;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+    Mutable accumulator of one parallel split, nothing is kept per shape
+*/
+public class ShapeStatistics {
+
+    protected static final ShapeType[] types = ShapeType.values();
+
+    protected final ProcessorShape processorShape;
+
+    protected final long[] typeCounts = new long[types.length];
+
+    protected long invalidCount;
+
+    protected final CompensatedSum areaSum = new CompensatedSum();
+
+    protected final CompensatedSum perimeterSum = new CompensatedSum();
+
+    protected final QuantileSketch areaSketch = new QuantileSketch();
+
+    protected final QuantileSketch perimeterSketch = new QuantileSketch();
+
+    public ShapeStatistics(final ProcessorShape processorShape) {
+        this.processorShape = processorShape;
+    }
+
+    public void accept(final Shape shape) {
+        try {
+            var type = processorShape.typeOf(shape);
+            var area = processorShape.approximateAreaOf(shape);
+            var perimeter = processorShape.approximatePerimeterOf(shape);
+
+            // Valid vertices can still overflow a double, the sketches only take finite values
+            if (!Double.isFinite(area) || !Double.isFinite(perimeter)) {
+                invalidCount++;
+                return;
+            }
+
+            typeCounts[type.ordinal()]++;
+            areaSum.add(area);
+            perimeterSum.add(perimeter);
+            areaSketch.add(area);
+            perimeterSketch.add(perimeter);
+        } catch (InvalidShapeException | ArithmeticException ex) {
+            invalidCount++;
+        }
+    }
+
+    public ShapeStatistics merge(final ShapeStatistics other) {
+        for (var i = 0; i < typeCounts.length; i++) {
+            typeCounts[i] += other.typeCounts[i];
+        }
+        invalidCount += other.invalidCount;
+        areaSum.merge(other.areaSum);
+        perimeterSum.merge(other.perimeterSum);
+        areaSketch.merge(other.areaSketch);
+        perimeterSketch.merge(other.perimeterSketch);
+        return this;
+    }
+
+    public ShapeSummary summary() {
+        var counts = new EnumMap<ShapeType, Long>(ShapeType.class);
+        var validCount = 0L;
+        for (var type : types) {
+            counts.put(type, typeCounts[type.ordinal()]);
+            validCount += typeCounts[type.ordinal()];
+        }
+
+        return new ShapeSummary(
+                Map.copyOf(counts),
+                validCount,
+                invalidCount,
+                areaSum.value(),
+                perimeterSum.value(),
+                areaSketch,
+                perimeterSketch
+        );
+    }
+}
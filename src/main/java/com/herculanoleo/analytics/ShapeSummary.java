@@ -0,0 +1,40 @@
+package com.herculanoleo.analytics;
+
+import com.herculanoleo.models.shape.ShapeType;
+
+import java.util.Map;
+
+public record ShapeSummary(Map<ShapeType, Long> typeCounts,
+                           long validCount,
+                           long invalidCount,
+                           double totalArea,
+                           double totalPerimeter,
+                           QuantileSketch areaSketch,
+                           QuantileSketch perimeterSketch
+) {
+    public long countOf(final ShapeType type) {
+        return typeCounts.getOrDefault(type, 0L);
+    }
+
+    public double meanArea() {
+        return validCount == 0 ? Double.NaN : totalArea / validCount;
+    }
+
+    public double areaQuantile(final double quantile) {
+        return areaSketch.quantile(quantile);
+    }
+
+    public double perimeterQuantile(final double quantile) {
+        return perimeterSketch.quantile(quantile);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "valid=%s|invalid=%s|types=%s|area[total=%s, p50=%s, p99=%s]|perimeter[total=%s, p50=%s, p99=%s]",
+                validCount, invalidCount, typeCounts,
+                totalArea, areaQuantile(0.5), areaQuantile(0.99),
+                totalPerimeter, perimeterQuantile(0.5), perimeterQuantile(0.99)
+        );
+    }
+}
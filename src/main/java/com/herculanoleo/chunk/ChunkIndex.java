@@ -0,0 +1,228 @@
+package com.herculanoleo.chunk;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Chunks seen so far, keyed by their SHA-256 digest, with their length and how many times they were referenced.
+
+    A chunk is referenced once per file version holding it, a version being a path and its ordered chunk digests.
+    Scanning an unchanged file again adds no reference, so the index savings measure the versions stored and do
+    not drift with the number of scans. Only the 32 byte digest of each version is kept.
+
+    The index lives in memory and is written back with save(), so runs over later versions of a tree see the
+    chunks of the earlier ones. The file is replaced atomically, a crash while saving keeps the previous index.
+
+    File layout, big endian: magic, format version, chunk count, then per chunk the 32 digest bytes, the length
+    as an int and the reference count as a long, then the version count and the 32 bytes of every version. The
+    chunks of a format 1 index, written before the versions were kept, are read with their counts as they are.
+*/
+@Log4j2
+public class ChunkIndex {
+
+    public static final int DIGEST_BYTES = 32;
+
+    protected static final int MAGIC = 0x43484e4b;
+
+    protected static final int UNVERSIONED_FORMAT_VERSION = 1;
+
+    protected static final int FORMAT_VERSION = 2;
+
+    protected final Path path;
+
+    protected final ConcurrentHashMap<ByteBuffer, Chunk> chunks;
+
+    protected final Set<ByteBuffer> versions;
+
+    protected ChunkIndex(final Path path, final ConcurrentHashMap<ByteBuffer, Chunk> chunks, final Set<ByteBuffer> versions) {
+        this.path = path;
+        this.chunks = chunks;
+        this.versions = versions;
+    }
+
+    /*
+        In memory only, save() is a no-op
+    */
+    public static ChunkIndex inMemory() {
+        return new ChunkIndex(null, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+    }
+
+    public static ChunkIndex open(final Path path) {
+        var chunks = new ConcurrentHashMap<ByteBuffer, Chunk>();
+        var versions = ConcurrentHashMap.<ByteBuffer>newKeySet();
+        if (!Files.exists(path)) {
+            return new ChunkIndex(path, chunks, versions);
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            var magic = input.readInt();
+            var formatVersion = input.readInt();
+            if (magic != MAGIC || (formatVersion != FORMAT_VERSION && formatVersion != UNVERSIONED_FORMAT_VERSION)) {
+                throw new ProcessFileException("Not a chunk index: " + path);
+            }
+
+            var count = input.readLong();
+            for (var i = 0L; i < count; i++) {
+                chunks.put(ByteBuffer.wrap(readDigest(input)), new Chunk(input.readInt(), input.readLong()));
+            }
+
+            if (formatVersion == FORMAT_VERSION) {
+                var versionCount = input.readLong();
+                for (var i = 0L; i < versionCount; i++) {
+                    versions.add(ByteBuffer.wrap(readDigest(input)));
+                }
+            }
+
+            log.info("Loaded {} chunks and {} file versions from the chunk index {}", count, versions.size(), path);
+            return new ChunkIndex(path, chunks, versions);
+        } catch (IOException ex) {
+            log.error("An error occurred while reading the chunk index {}", path, ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+    }
+
+    /*
+        True when the chunk was not in the index yet, it is only referenced once its file version is added
+    */
+    public boolean add(final byte[] digest, final int length) {
+        var added = new Chunk(length, 0);
+        return chunks.computeIfAbsent(ByteBuffer.wrap(digest), key -> added) == added;
+    }
+
+    /*
+        References the chunks of a file, given in order and added before, unless this version of the file was
+        already added. True when the version is new.
+    */
+    public boolean addVersion(final String file, final List<byte[]> digests) {
+        if (!versions.add(ByteBuffer.wrap(versionOf(file, digests)))) {
+            return false;
+        }
+        for (var digest : digests) {
+            chunks.get(ByteBuffer.wrap(digest)).references.incrementAndGet();
+        }
+        return true;
+    }
+
+    public long versionCount() {
+        return versions.size();
+    }
+
+    /*
+        The chunks and stored bytes leave out the chunks of files that failed before their version was added
+    */
+    public long chunkCount() {
+        return chunks.values().stream().filter(Chunk::isReferenced).count();
+    }
+
+    public long storedBytes() {
+        return chunks.values().stream().filter(Chunk::isReferenced).mapToLong(Chunk::length).sum();
+    }
+
+    public long referencedBytes() {
+        return chunks.values().stream().mapToLong(chunk -> chunk.length * chunk.references.get()).sum();
+    }
+
+    public long sharedChunkCount() {
+        return chunks.values().stream().filter(chunk -> chunk.references.get() > 1).count();
+    }
+
+    public void save() {
+        if (Objects.isNull(path)) {
+            return;
+        }
+
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                var snapshot = chunks.entrySet().stream().filter(entry -> entry.getValue().isReferenced()).toList();
+                var versionSnapshot = List.copyOf(versions);
+
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(snapshot.size());
+                for (var entry : snapshot) {
+                    writeDigest(output, entry.getKey());
+                    output.writeInt(entry.getValue().length);
+                    output.writeLong(entry.getValue().references.get());
+                }
+                output.writeLong(versionSnapshot.size());
+                for (var version : versionSnapshot) {
+                    writeDigest(output, version);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            log.error("An error occurred while saving the chunk index {}", path, ex);
+            deleteQuietly(temporary);
+            throw new ProcessFileException(ex.getMessage());
+        }
+    }
+
+    protected void deleteQuietly(final Path temporary) {
+        if (Objects.isNull(temporary)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException ex) {
+            log.warn("The temporary chunk index {} could not be deleted", temporary, ex);
+        }
+    }
+
+    protected static byte[] readDigest(final DataInputStream input) throws IOException {
+        var digest = new byte[DIGEST_BYTES];
+        input.readFully(digest);
+        return digest;
+    }
+
+    protected static void writeDigest(final DataOutputStream output, final ByteBuffer digest) throws IOException {
+        output.write(digest.array(), digest.arrayOffset(), DIGEST_BYTES);
+    }
+
+    /*
+        SHA-256 of the path and the ordered chunk digests
+    */
+    protected static byte[] versionOf(final String file, final List<byte[]> digests) {
+        var sha256 = DigestUtils.getSha256Digest();
+        sha256.update(file.getBytes(StandardCharsets.UTF_8));
+        sha256.update((byte) 0);
+        for (var digest : digests) {
+            sha256.update(digest);
+        }
+        return sha256.digest();
+    }
+
+    protected static final class Chunk {
+
+        protected final int length;
+
+        protected final AtomicLong references;
+
+        protected Chunk(final int length, final long references) {
+            this.length = length;
+            this.references = new AtomicLong(references);
+        }
+
+        protected int length() {
+            return length;
+        }
+
+        protected boolean isReferenced() {
+            return references.get() > 0;
+        }
+    }
+}
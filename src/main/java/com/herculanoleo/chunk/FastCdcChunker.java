@@ -0,0 +1,100 @@
+package com.herculanoleo.chunk;
+
+import java.util.SplittableRandom;
+
+/*
+    FastCDC content-defined chunking with normalized chunk sizes.
+
+    A gear rolling hash runs over the bytes past the minimum size, a chunk ends where the top bits of the hash are
+    all zero. A stricter mask applies before the average size and a looser one after it, which pulls most chunks
+    close to the average. An inserted byte only moves the boundary of the chunk holding it, later chunks still cut
+    at the same content and keep their hashes.
+
+    The gear table comes from a fixed seed, changing it changes every boundary and invalidates existing chunk indexes.
+*/
+public class FastCdcChunker {
+
+    public static final int DEFAULT_MINIMUM_SIZE = 16384;
+
+    public static final int DEFAULT_AVERAGE_SIZE = 65536;
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 262144;
+
+    public static final FastCdcChunker shared = new FastCdcChunker(DEFAULT_MINIMUM_SIZE, DEFAULT_AVERAGE_SIZE, DEFAULT_MAXIMUM_SIZE);
+
+    protected static final long GEAR_SEED = 0x6a09e667f3bcc908L;
+
+    protected static final long[] GEAR = gearTable();
+
+    protected final int minimumSize;
+
+    protected final int averageSize;
+
+    protected final int maximumSize;
+
+    protected final long strictMask;
+
+    protected final long looseMask;
+
+    public FastCdcChunker(final int minimumSize, final int averageSize, final int maximumSize) {
+        if (minimumSize <= 0 || minimumSize > averageSize || averageSize > maximumSize || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException("The chunk sizes must be positive, ordered and the average a power of two");
+        }
+        this.minimumSize = minimumSize;
+        this.averageSize = averageSize;
+        this.maximumSize = maximumSize;
+
+        var bits = Integer.numberOfTrailingZeros(averageSize);
+        this.strictMask = topBits(bits + 1);
+        this.looseMask = topBits(bits - 1);
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /*
+        Length of the chunk starting at offset, the bytes up to offset + length are all that is looked at.
+        The caller passes at least maximumSize bytes unless it reached the end of the data.
+    */
+    public int cut(final byte[] bytes, final int offset, final int length) {
+        if (length <= minimumSize) {
+            return length;
+        }
+
+        var end = Math.min(length, maximumSize);
+        var normal = Math.min(end, averageSize);
+        var fingerprint = 0L;
+
+        var i = minimumSize;
+        for (; i < normal; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[bytes[offset + i] & 0xff];
+            if ((fingerprint & strictMask) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < end; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[bytes[offset + i] & 0xff];
+            if ((fingerprint & looseMask) == 0) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    /*
+        The top bits depend on the last 64 bytes, the low ones only on the last few
+    */
+    protected static long topBits(final int bits) {
+        return bits <= 0 ? 0L : -1L << (Long.SIZE - bits);
+    }
+
+    protected static long[] gearTable() {
+        var random = new SplittableRandom(GEAR_SEED);
+        var table = new long[256];
+        for (var i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,393 @@
+package com.herculanoleo.cluster;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/*
+    Coordinator side of the sharded hashing.
+
+    The tree is walked once and every file goes to the shard of its path hash, shard path lists are spooled to
+    temporary files so neither the coordinator nor a worker ever holds the whole tree. Workers connect over a
+    loopback socket and pull shards one at a time, a shard's results are spooled too and only appended to the
+    result file once the worker reported DONE. A worker dying mid-shard loses nothing but its shard, which goes
+    back to the queue for the others, and so does a worker silent for longer than the read timeout. When the last
+    worker is gone with shards left and none of the launched ones is still on its way, a replacement is launched,
+    at most as many times as workers were asked for.
+*/
+@Log4j2
+public class HashCoordinator {
+
+    protected static final int SHARDS_PER_WORKER = 4;
+
+    protected static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    protected static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(60);
+
+    /*
+        A worker writes nothing while it hashes a shard, so this bounds the time a shard may take
+    */
+    protected static final Duration READ_TIMEOUT = Duration.ofSeconds(Long.getLong("hash.worker.timeout", 600));
+
+    protected static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    protected final WorkerLauncher launcher;
+
+    protected final int workerCount;
+
+    protected final int shardCount;
+
+    protected final Duration readTimeout;
+
+    public HashCoordinator(final WorkerLauncher launcher, final int workerCount) {
+        this(launcher, workerCount, workerCount * SHARDS_PER_WORKER);
+    }
+
+    public HashCoordinator(final WorkerLauncher launcher, final int workerCount, final int shardCount) {
+        this(launcher, workerCount, shardCount, READ_TIMEOUT);
+    }
+
+    public HashCoordinator(final WorkerLauncher launcher, final int workerCount, final int shardCount, final Duration readTimeout) {
+        if (workerCount <= 0 || shardCount <= 0) {
+            throw new IllegalArgumentException("The workers and the shards must be positive");
+        }
+        this.launcher = launcher;
+        this.workerCount = workerCount;
+        this.shardCount = shardCount;
+        this.readTimeout = readTimeout;
+    }
+
+    public Path processFolder(final Path directory, final Path resultDestination) {
+        var startAt = LocalDateTime.now();
+
+        if (!Files.isDirectory(directory) || !Files.isDirectory(resultDestination)) {
+            throw new ProcessFileException();
+        }
+
+        var filepath = resultDestination.resolve(String.format("result-%s.txt", dateTimeFormatter.format(startAt)));
+        log.info("Start sharded processing of directory {} with {} workers and {} shards", directory.toAbsolutePath(), workerCount, shardCount);
+
+        Path spool = null;
+        try {
+            spool = Files.createTempDirectory("hash-shards");
+            var shardSizes = spoolShards(directory, spool);
+
+            try (var run = new Run(spool, shardSizes, filepath)) {
+                run.await();
+            }
+
+            log.info("Finish sharded processing of directory {} in {}s", directory.toAbsolutePath(), Duration.between(startAt, LocalDateTime.now()).getSeconds());
+            return filepath;
+        } catch (IOException ex) {
+            log.error("An error occurred while coordinating the sharded processing", ex);
+            throw new ProcessFileException(ex.getMessage());
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    /*
+        Path count of every shard, the paths are spooled escaped as they are sent
+    */
+    protected int[] spoolShards(final Path directory, final Path spool) throws IOException {
+        var sizes = new int[shardCount];
+        var writers = new BufferedWriter[shardCount];
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var i = 0; i < shardCount; i++) {
+                writers[i] = Files.newBufferedWriter(pathsOf(spool, i), StandardCharsets.UTF_8);
+            }
+
+            for (var file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                var path = file.toAbsolutePath().toString();
+                var shard = shardOf(path);
+                writers[shard].write(HashWorker.escape(path));
+                writers[shard].write('\n');
+                sizes[shard]++;
+            }
+        } finally {
+            for (var writer : writers) {
+                if (Objects.nonNull(writer)) {
+                    writer.close();
+                }
+            }
+        }
+
+        return sizes;
+    }
+
+    protected int shardOf(final String path) {
+        return Math.floorMod(path.hashCode(), shardCount);
+    }
+
+    protected Path pathsOf(final Path spool, final int shard) {
+        return spool.resolve(String.format("shard-%s.paths", shard));
+    }
+
+    protected Path resultsOf(final Path spool, final int shard) {
+        return spool.resolve(String.format("shard-%s.results", shard));
+    }
+
+    protected void deleteQuietly(final Path spool) {
+        if (Objects.isNull(spool)) {
+            return;
+        }
+        try (var paths = Files.walk(spool)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ex) {
+            log.warn("The shard spool {} could not be deleted", spool, ex);
+        }
+    }
+
+    /*
+        State of one processFolder call
+    */
+    protected class Run implements AutoCloseable {
+
+        protected final Path spool;
+
+        protected final int[] shardSizes;
+
+        protected final Path filepath;
+
+        protected final ServerSocket serverSocket;
+
+        protected final LinkedBlockingDeque<Integer> pending = new LinkedBlockingDeque<>();
+
+        protected final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        protected final AtomicInteger completed = new AtomicInteger();
+
+        protected final AtomicInteger connections = new AtomicInteger();
+
+        protected final AtomicInteger liveWorkers = new AtomicInteger();
+
+        /*
+            Launched and not connected yet, forgotten once they are past launchDeadline
+        */
+        protected final AtomicInteger launchingWorkers = new AtomicInteger();
+
+        protected volatile long launchDeadline;
+
+        protected final AtomicInteger relaunches = new AtomicInteger();
+
+        protected final ReentrantLock mergeLock = new ReentrantLock();
+
+        protected final List<AutoCloseable> workers = new CopyOnWriteArrayList<>();
+
+        protected final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+
+        protected Run(final Path spool, final int[] shardSizes, final Path filepath) throws IOException {
+            this.spool = spool;
+            this.shardSizes = shardSizes;
+            this.filepath = filepath;
+            this.serverSocket = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress());
+
+            Files.deleteIfExists(filepath);
+            Files.createFile(filepath);
+
+            for (var shard = 0; shard < shardSizes.length; shard++) {
+                pending.add(shard);
+            }
+        }
+
+        /*
+            Fails when no worker connected within CONNECT_TIMEOUT, a launcher that cannot start the JVMs would hang otherwise
+        */
+        protected void await() throws IOException {
+            handlers.execute(this::accept);
+
+            launchDeadline = System.nanoTime() + CONNECT_TIMEOUT.toNanos();
+            launchingWorkers.addAndGet(workerCount);
+            for (var i = 0; i < workerCount; i++) {
+                workers.add(launcher.launch(addressOf()));
+            }
+
+            try {
+                while (!done.isDone()) {
+                    supervise();
+                    try {
+                        done.get(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException ignored) {
+                        /* still running */
+                    }
+                }
+                done.get();
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause().getMessage(), ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the workers", ex);
+            }
+        }
+
+        /*
+            Run by the awaiting thread only. The launching count is read before the live one, accept adds a live
+            worker before it removes a launching one, so a worker cannot be missed while it connects.
+        */
+        protected void supervise() throws IOException {
+            var overdue = System.nanoTime() > launchDeadline;
+            if (overdue && connections.get() == 0) {
+                throw new IOException("No worker connected to the coordinator");
+            }
+
+            var launching = launchingWorkers.get();
+            if (liveWorkers.get() > 0 || done.isDone() || (launching > 0 && !overdue)) {
+                return;
+            }
+
+            if (launching > 0) {
+                log.warn("{} launched workers did not connect within {}s", launching, CONNECT_TIMEOUT.getSeconds());
+                launchingWorkers.set(0);
+            }
+            relaunch();
+        }
+
+        protected InetSocketAddress addressOf() {
+            return new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        }
+
+        protected void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    var socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    liveWorkers.incrementAndGet();
+                    launchingWorkers.updateAndGet(launching -> Math.max(0, launching - 1));
+                    handlers.execute(() -> serve(socket));
+                } catch (IOException ex) {
+                    if (!serverSocket.isClosed()) {
+                        log.error("An error occurred while accepting a worker", ex);
+                    }
+                } catch (RejectedExecutionException ex) {
+                    return;
+                }
+            }
+        }
+
+        /*
+            Feeds one worker until every shard is done, the shard in hand goes back to the queue if the worker fails
+            or stays silent for the read timeout
+        */
+        protected void serve(final Socket socket) {
+            Integer shard = null;
+
+            try (socket;
+                 var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, readTimeout.toMillis()));
+                while (!done.isDone()) {
+                    shard = pending.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    if (Objects.isNull(shard)) {
+                        continue;
+                    }
+
+                    send(writer, shard);
+                    receive(reader, shard);
+                    merge(shard);
+                    shard = null;
+
+                    if (completed.incrementAndGet() == shardSizes.length) {
+                        done.complete(null);
+                    }
+                }
+
+                writer.write(HashWorker.QUIT + "\n");
+                writer.flush();
+            } catch (IOException ex) {
+                log.warn("The worker {} failed, its shard {} goes back to the queue", socket.getRemoteSocketAddress(), shard, ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (Objects.nonNull(shard)) {
+                    pending.addFirst(shard);
+                }
+                liveWorkers.decrementAndGet();
+            }
+        }
+
+        protected void send(final BufferedWriter writer, final int shard) throws IOException {
+            writer.write(String.format("%s %s %s\n", HashWorker.SHARD, shard, shardSizes[shard]));
+            try (var paths = Files.newBufferedReader(pathsOf(spool, shard), StandardCharsets.UTF_8)) {
+                paths.transferTo(writer);
+            }
+            writer.flush();
+        }
+
+        protected void receive(final BufferedReader reader, final int shard) throws IOException {
+            var expectedDone = HashWorker.DONE + " " + shard;
+
+            try (var results = Files.newBufferedWriter(resultsOf(spool, shard), StandardCharsets.UTF_8)) {
+                for (var line = reader.readLine(); !expectedDone.equals(line); line = reader.readLine()) {
+                    if (Objects.isNull(line)) {
+                        throw new EOFException("The worker closed the connection in the middle of shard " + shard);
+                    }
+                    results.write(HashWorker.unescape(line));
+                    results.write('\n');
+                }
+            }
+        }
+
+        protected void merge(final int shard) throws IOException {
+            mergeLock.lock();
+            try (var output = Files.newOutputStream(filepath, StandardOpenOption.APPEND)) {
+                Files.copy(resultsOf(spool, shard), output);
+            } finally {
+                mergeLock.unlock();
+            }
+            Files.deleteIfExists(resultsOf(spool, shard));
+        }
+
+        protected void relaunch() {
+            if (relaunches.incrementAndGet() > workerCount) {
+                done.completeExceptionally(new IOException("Every worker died and the relaunch budget is spent"));
+                return;
+            }
+
+            log.warn("Every worker died with {} shards left, launching a replacement", shardSizes.length - completed.get());
+            try {
+                launchDeadline = System.nanoTime() + CONNECT_TIMEOUT.toNanos();
+                launchingWorkers.incrementAndGet();
+                workers.add(launcher.launch(addressOf()));
+            } catch (RuntimeException ex) {
+                done.completeExceptionally(ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            done.complete(null);
+            serverSocket.close();
+
+            for (var worker : workers) {
+                try {
+                    worker.close();
+                } catch (Exception ex) {
+                    log.warn("A worker could not be stopped", ex);
+                }
+            }
+
+            handlers.close();
+        }
+    }
+}
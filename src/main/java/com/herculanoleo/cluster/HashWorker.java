@@ -0,0 +1,107 @@
+package com.herculanoleo.cluster;
+
+import com.herculanoleo.processor.ProcessorFile;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+    Worker side of the sharded hashing, connects to the coordinator and hashes the shards it is sent.
+
+    Coordinator to worker: SHARD <index> <path count> followed by one path per line, or QUIT.
+    Worker to coordinator: one result line per file, then DONE <index>.
+    Paths and result lines are escaped, a backslash, carriage return or line feed in a file name cannot split a line.
+    Any failure closes the connection without DONE, which is how the coordinator learns to hand the shard to someone else.
+*/
+@Log4j2
+public class HashWorker implements Runnable {
+
+    protected static final String SHARD = "SHARD";
+
+    protected static final String DONE = "DONE";
+
+    protected static final String QUIT = "QUIT";
+
+    protected final ProcessorFile processorFile;
+
+    protected final InetSocketAddress coordinator;
+
+    public HashWorker(final ProcessorFile processorFile, final InetSocketAddress coordinator) {
+        this.processorFile = processorFile;
+        this.coordinator = coordinator;
+    }
+
+    @Override
+    public void run() {
+        try (var socket = new Socket(coordinator.getAddress(), coordinator.getPort());
+             var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            for (var command = reader.readLine(); Objects.nonNull(command) && !command.equals(QUIT); command = reader.readLine()) {
+                var parts = command.split(" ");
+                if (parts.length != 3 || !parts[0].equals(SHARD)) {
+                    throw new IOException("Unexpected command from the coordinator: " + command);
+                }
+
+                var index = Integer.parseInt(parts[1]);
+                var pathCount = Integer.parseInt(parts[2]);
+
+                var paths = new ArrayList<Path>(pathCount);
+                for (var i = 0; i < pathCount; i++) {
+                    paths.add(Path.of(unescape(Objects.requireNonNull(reader.readLine(), "Truncated shard"))));
+                }
+
+                for (var line : hashShard(index, paths)) {
+                    writer.write(escape(line));
+                    writer.write('\n');
+                }
+                writer.write(DONE + " " + index + "\n");
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("The hash worker stopped", ex);
+        }
+    }
+
+    protected static String escape(final String value) {
+        var escaped = new StringBuilder(value.length());
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    protected static String unescape(final String value) {
+        var unescaped = new StringBuilder(value.length());
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            unescaped.append(switch (value.charAt(++i)) {
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                default -> value.charAt(i);
+            });
+        }
+        return unescaped.toString();
+    }
+
+    protected List<String> hashShard(final int index, final List<Path> paths) {
+        log.debug("Hashing shard {} of {} files", index, paths.size());
+        return processorFile.hashOf(paths).stream().map(Object::toString).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.herculanoleo.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+    Starts one worker that connects back to the coordinator, the returned handle stops it
+*/
+@FunctionalInterface
+public interface WorkerLauncher {
+
+    AutoCloseable launch(InetSocketAddress coordinator);
+
+    /*
+        One JVM per worker on the classpath of the current one, running the headless worker command
+    */
+    static WorkerLauncher processes() {
+        return coordinator -> {
+            var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            var command = List.of(
+                    java,
+                    "-cp", System.getProperty("java.class.path"),
+                    "com.herculanoleo.App",
+                    "worker", Integer.toString(coordinator.getPort())
+            );
+
+            try {
+                var process = new ProcessBuilder(command)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                return process::destroy;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("The worker JVM could not be started: " + String.join(" ", command), ex);
+            }
+        };
+    }
+
+    /*
+        Workers as threads of the current JVM, the protocol and the failure handling are the same
+    */
+    static WorkerLauncher threads(final Function<InetSocketAddress, HashWorker> workers) {
+        return coordinator -> {
+            var thread = Thread.ofPlatform().name("hash-worker").daemon().start(workers.apply(coordinator));
+            return thread::interrupt;
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package com.herculanoleo.dataset;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.shape.MappedShape;
+import com.herculanoleo.models.shape.ShapeTag;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/*
+    Read only view of a dataset file, opening it maps the segments and reads their headers only.
+
+    Each segment is its own mapping, below ShapeDatasetLayout.MAX_SEGMENT_BYTES, so a file of any size is mapped
+    in pieces. Closing unmaps them at once instead of whenever the buffers are collected, the file can then be
+    replaced or deleted. Shapes read from the dataset must not be used once it is closed.
+*/
+@Log4j2
+public class ShapeDataset implements AutoCloseable {
+
+    protected static final ShapeTag[] tags = ShapeTag.values();
+
+    protected static final MethodHandle invokeCleaner = invokeCleaner();
+
+    protected final List<Segment> segments;
+
+    protected final long[] segmentStarts;
+
+    protected final long size;
+
+    protected volatile boolean closed;
+
+    protected ShapeDataset(final List<Segment> segments) {
+        this.segments = segments;
+        this.segmentStarts = new long[segments.size()];
+
+        var start = 0L;
+        for (var i = 0; i < segments.size(); i++) {
+            segmentStarts[i] = start;
+            start += segments.get(i).shapeCount();
+        }
+        this.size = start;
+    }
+
+    public static ShapeDataset open(final Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var segments = new ArrayList<Segment>();
+            var position = 0L;
+            var header = ByteBuffer.allocate(ShapeDatasetLayout.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (position < channel.size()) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+
+                if (header.remaining() < ShapeDatasetLayout.HEADER_BYTES
+                        || header.getInt() != ShapeDatasetLayout.MAGIC
+                        || header.getInt() != ShapeDatasetLayout.VERSION) {
+                    throw new ProcessFileException("Invalid shape dataset segment at " + position);
+                }
+
+                var shapeCount = header.getInt();
+                var vertexCount = header.getInt();
+                var segmentBytes = ShapeDatasetLayout.segmentBytes(shapeCount, vertexCount);
+
+                if (shapeCount < 0 || vertexCount < 0 || position + segmentBytes > channel.size()) {
+                    throw new ProcessFileException("Truncated shape dataset segment at " + position);
+                }
+                if (segmentBytes > ShapeDatasetLayout.MAX_SEGMENT_BYTES) {
+                    throw new ProcessFileException("Shape dataset segment at " + position + " is too large to be mapped");
+                }
+
+                var mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, segmentBytes).order(ByteOrder.LITTLE_ENDIAN);
+                segments.add(Segment.of(mapped, shapeCount, vertexCount));
+                position += segmentBytes;
+            }
+
+            log.debug("Opened shape dataset {} with {} segments", path, segments.size());
+            return new ShapeDataset(segments);
+        } catch (IOException ex) {
+            log.error("An error occurred while opening the shape dataset", ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public MappedShape get(final long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(Long.toString(index));
+        }
+        if (closed) {
+            throw new IllegalStateException("The shape dataset is closed");
+        }
+
+        var found = Arrays.binarySearch(segmentStarts, index);
+        var segmentIndex = found >= 0 ? lastSegmentStartingAt(found) : -found - 2;
+        return segments.get(segmentIndex).get((int) (index - segmentStarts[segmentIndex]));
+    }
+
+    public Stream<MappedShape> stream(final long fromIndex, final long toIndex) {
+        return LongStream.range(fromIndex, toIndex).mapToObj(this::get);
+    }
+
+    public Stream<MappedShape> stream() {
+        return stream(0, size);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (Objects.nonNull(invokeCleaner)) {
+            for (var segment : segments) {
+                try {
+                    invokeCleaner.invokeExact(segment.mapped());
+                } catch (Throwable ex) {
+                    log.debug("The shape dataset segment could not be unmapped", ex);
+                }
+            }
+        }
+    }
+
+    /*
+        sun.misc.Unsafe.invokeCleaner, null when the runtime does not expose it and the mappings are left to the GC
+    */
+    protected static MethodHandle invokeCleaner() {
+        try {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /*
+        Empty segments share their start with the next one
+    */
+    protected int lastSegmentStartingAt(int segmentIndex) {
+        while (segmentIndex + 1 < segmentStarts.length && segmentStarts[segmentIndex + 1] == segmentStarts[segmentIndex]) {
+            segmentIndex++;
+        }
+        return segmentIndex;
+    }
+
+    protected record Segment(ByteBuffer mapped, ByteBuffer tags, IntBuffer offsets, DoubleBuffer x, DoubleBuffer y, int shapeCount) {
+
+        static Segment of(final ByteBuffer mapped, final int shapeCount, final int vertexCount) {
+            var tagsAt = ShapeDatasetLayout.HEADER_BYTES;
+            var offsetsAt = tagsAt + (int) ShapeDatasetLayout.tagsBytes(shapeCount);
+            var xAt = offsetsAt + (int) ShapeDatasetLayout.offsetsBytes(shapeCount);
+            var yAt = xAt + (int) ShapeDatasetLayout.columnBytes(vertexCount);
+            var columnBytes = (int) ShapeDatasetLayout.columnBytes(vertexCount);
+
+            return new Segment(
+                    mapped,
+                    mapped.slice(tagsAt, shapeCount),
+                    mapped.slice(offsetsAt, (shapeCount + 1) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+                    mapped.slice(xAt, columnBytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+                    mapped.slice(yAt, columnBytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+                    shapeCount
+            );
+        }
+
+        MappedShape get(final int index) {
+            var tag = tags.get(index);
+            if (tag < 0 || tag >= ShapeDataset.tags.length) {
+                throw new ProcessFileException("Invalid shape tag " + tag);
+            }
+
+            var offset = offsets.get(index);
+            return new MappedShape(ShapeDataset.tags[tag], x, y, offset, offsets.get(index + 1) - offset);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.herculanoleo.dataset;
+
+/*
+    A dataset file is a sequence of segments, every append writes a new one:
+
+    header      magic int, version int, shape count int, vertex count int
+    tags        shape count bytes (ShapeTag ordinal), padded to 8 bytes
+    offsets     shape count + 1 ints (first vertex of each shape), padded to 8 bytes
+    x column    vertex count doubles
+    y column    vertex count doubles
+
+    Every value is little endian.
+*/
+public final class ShapeDatasetLayout {
+
+    public static final int MAGIC = 0x44504853;
+
+    public static final int VERSION = 1;
+
+    public static final int HEADER_BYTES = Integer.BYTES * 4;
+
+    public static final int MAX_SEGMENT_BYTES = Integer.MAX_VALUE - 8;
+
+    private ShapeDatasetLayout() {
+    }
+
+    public static long tagsBytes(final int shapeCount) {
+        return align(shapeCount);
+    }
+
+    public static long offsetsBytes(final int shapeCount) {
+        return align((shapeCount + 1L) * Integer.BYTES);
+    }
+
+    public static long columnBytes(final int vertexCount) {
+        return (long) vertexCount * Double.BYTES;
+    }
+
+    public static long segmentBytes(final int shapeCount, final int vertexCount) {
+        return HEADER_BYTES + tagsBytes(shapeCount) + offsetsBytes(shapeCount) + columnBytes(vertexCount) * 2;
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
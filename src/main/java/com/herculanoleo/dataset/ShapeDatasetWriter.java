@@ -0,0 +1,182 @@
+package com.herculanoleo.dataset;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.shape.*;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+    Buffers shapes and appends them to the end of the file as one segment per flush,
+    existing segments are never rewritten. A segment is flushed early rather than grow past the bytes one mapping
+    can hold
+*/
+@Log4j2
+public class ShapeDatasetWriter implements AutoCloseable {
+
+    protected static final int DEFAULT_SHAPES_PER_SEGMENT = 65536;
+
+    protected final FileChannel channel;
+
+    protected final int shapesPerSegment;
+
+    protected final long maxSegmentBytes;
+
+    protected byte[] tags;
+
+    protected int[] offsets;
+
+    protected double[] x;
+
+    protected double[] y;
+
+    protected int shapeCount;
+
+    protected int vertexCount;
+
+    protected ShapeDatasetWriter(final FileChannel channel, final int shapesPerSegment) {
+        this(channel, shapesPerSegment, ShapeDatasetLayout.MAX_SEGMENT_BYTES);
+    }
+
+    protected ShapeDatasetWriter(final FileChannel channel, final int shapesPerSegment, final long maxSegmentBytes) {
+        this.channel = channel;
+        this.shapesPerSegment = shapesPerSegment;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.tags = new byte[shapesPerSegment];
+        this.offsets = new int[shapesPerSegment + 1];
+        this.x = new double[shapesPerSegment * 4];
+        this.y = new double[shapesPerSegment * 4];
+    }
+
+    public static ShapeDatasetWriter append(final Path path) {
+        return append(path, DEFAULT_SHAPES_PER_SEGMENT);
+    }
+
+    public static ShapeDatasetWriter append(final Path path, final int shapesPerSegment) {
+        try {
+            var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return new ShapeDatasetWriter(channel, shapesPerSegment);
+        } catch (IOException ex) {
+            log.error("An error occurred while opening the shape dataset", ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+    }
+
+    public void write(final Shape shape) {
+        switch (shape) {
+            case CircleShape circle -> write(ShapeTag.CIRCLE, circle);
+            case RectangleShape rect -> write(ShapeTag.RECTANGLE, rect);
+            case TriangleShape triangle -> write(ShapeTag.TRIANGLE, triangle);
+            case PolygonShape polygon -> write(ShapeTag.POLYGON, polygon.x(), polygon.y());
+            case MappedShape mapped -> {
+                var xs = new double[mapped.vertexCount()];
+                var ys = new double[mapped.vertexCount()];
+                for (var i = 0; i < xs.length; i++) {
+                    xs[i] = mapped.x(i);
+                    ys[i] = mapped.y(i);
+                }
+                write(mapped.tag(), xs, ys);
+            }
+            case null -> throw new InvalidShapeException();
+        }
+    }
+
+    public void flush() {
+        if (shapeCount == 0) {
+            return;
+        }
+
+        var segmentBytes = ShapeDatasetLayout.segmentBytes(shapeCount, vertexCount);
+
+        var buffer = ByteBuffer.allocate((int) segmentBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(ShapeDatasetLayout.MAGIC)
+                .putInt(ShapeDatasetLayout.VERSION)
+                .putInt(shapeCount)
+                .putInt(vertexCount);
+        buffer.put(tags, 0, shapeCount);
+        buffer.position(ShapeDatasetLayout.HEADER_BYTES + (int) ShapeDatasetLayout.tagsBytes(shapeCount));
+        buffer.asIntBuffer().put(offsets, 0, shapeCount + 1);
+        buffer.position(buffer.position() + (int) ShapeDatasetLayout.offsetsBytes(shapeCount));
+        buffer.asDoubleBuffer().put(x, 0, vertexCount);
+        buffer.position(buffer.position() + (int) ShapeDatasetLayout.columnBytes(vertexCount));
+        buffer.asDoubleBuffer().put(y, 0, vertexCount);
+        buffer.rewind();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            log.error("An error occurred while appending to the shape dataset", ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+
+        shapeCount = 0;
+        vertexCount = 0;
+    }
+
+    @Override
+    public void close() {
+        try (channel) {
+            flush();
+        } catch (IOException ex) {
+            log.error("An error occurred while closing the shape dataset", ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+    }
+
+    protected void write(final ShapeTag tag, final Shape shape) {
+        var points = shape.cartesianPoints();
+        var xs = new double[points.size()];
+        var ys = new double[points.size()];
+
+        for (var i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            if (Objects.isNull(point)) {
+                throw new InvalidShapeException();
+            }
+            xs[i] = point.x().doubleValue();
+            ys[i] = point.y().doubleValue();
+        }
+
+        write(tag, xs, ys);
+    }
+
+    protected void write(final ShapeTag tag, final double[] xs, final double[] ys) {
+        if (xs.length != ys.length) {
+            throw new InvalidShapeException();
+        }
+
+        if (ShapeDatasetLayout.segmentBytes(1, xs.length) > maxSegmentBytes) {
+            throw new ProcessFileException("Shape with " + xs.length + " vertices does not fit in a shape dataset segment");
+        }
+        if (ShapeDatasetLayout.segmentBytes(shapeCount + 1, vertexCount + xs.length) > maxSegmentBytes) {
+            flush();
+        }
+
+        if (vertexCount + xs.length > x.length) {
+            var capacity = Math.max(x.length * 2, vertexCount + xs.length);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+
+        tags[shapeCount] = (byte) tag.ordinal();
+        offsets[shapeCount] = vertexCount;
+        System.arraycopy(xs, 0, x, vertexCount, xs.length);
+        System.arraycopy(ys, 0, y, vertexCount, ys.length);
+        vertexCount += xs.length;
+        offsets[++shapeCount] = vertexCount;
+
+        if (shapeCount == shapesPerSegment) {
+            flush();
+        }
+    }
+}
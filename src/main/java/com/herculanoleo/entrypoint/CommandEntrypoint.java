@@ -0,0 +1,373 @@
+package com.herculanoleo.entrypoint;
+
+import com.herculanoleo.chunk.ChunkIndex;
+import com.herculanoleo.cluster.HashCoordinator;
+import com.herculanoleo.cluster.HashWorker;
+import com.herculanoleo.cluster.WorkerLauncher;
+import com.herculanoleo.models.command.OutputFormat;
+import com.herculanoleo.models.file.DedupeReport;
+import com.herculanoleo.models.file.HashJobOptions;
+import com.herculanoleo.models.file.ProcessFileResult;
+import com.herculanoleo.models.shape.ShapeDetails;
+import com.herculanoleo.processor.ChunkingProcessorFile;
+import com.herculanoleo.processor.ProcessorFile;
+import com.herculanoleo.processor.ProcessorShape;
+import com.herculanoleo.processor.ProcessorShapeFile;
+import com.herculanoleo.processor.ShapeParser;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/*
+    Headless mode for scripts and scheduled runs, nothing is read from System.in.
+
+        [--output text|json] hash <path>...
+        [--output text|json] shape <tag,x1,y1,...>...
+        [--output text|json] shapes-file <source> <result directory>
+        [--output text|json] hash-sharded <directory> <result directory> <workers> [shards]
+        [--output text|json] hash-chunked <directory> <result directory> <chunk index>
+        [--output text|json] --job <file>
+        worker <coordinator port>
+
+    hash-sharded spreads the tree over worker JVMs started on the current classpath, the worker command is what
+    they run and is not meant to be typed. hash-chunked hashes content-defined chunks, the chunk index file is
+    created on the first run and updated by the next ones, the dedupe report is printed.
+
+    A job file holds one command per line, blank and # lines are skipped, arguments with spaces go in double quotes.
+    Results go to the given stream and logs to stderr. The exit code is 0 when everything succeeded, 1 when a file
+    or shape failed and 2 for usage errors. A failing line of a job file is reported and the next lines still run,
+    the job exits with the worst code of its lines.
+
+    Processors are only touched by the commands using them, so a shape run never loads the hashing side nor log4j2.
+*/
+public class CommandEntrypoint {
+
+    public static final int EXIT_SUCCESS = 0;
+
+    public static final int EXIT_FAILURE = 1;
+
+    public static final int EXIT_USAGE = 2;
+
+    protected static final String USAGE = """
+            Usage:
+              [--output text|json] hash <path>...
+              [--output text|json] shape <tag,x1,y1,...>...
+              [--output text|json] shapes-file <source> <result directory>
+              [--output text|json] hash-sharded <directory> <result directory> <workers> [shards]
+              [--output text|json] hash-chunked <directory> <result directory> <chunk index>
+              [--output text|json] --job <file>
+            """;
+
+    protected final PrintStream out;
+
+    protected final PrintStream err;
+
+    protected OutputFormat output = OutputFormat.TEXT;
+
+    public CommandEntrypoint(final PrintStream out, final PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public int run(final String[] args) {
+        var arguments = new ArrayList<>(Arrays.asList(args));
+
+        try {
+            if (arguments.size() >= 2 && arguments.getFirst().equals("--output")) {
+                var format = outputOf(arguments.get(1));
+                if (Objects.isNull(format)) {
+                    return usage("Unknown output " + arguments.get(1));
+                }
+                output = format;
+                arguments.subList(0, 2).clear();
+            }
+
+            if (arguments.isEmpty() || arguments.getFirst().equals("--help")) {
+                err.print(USAGE);
+                return arguments.isEmpty() ? EXIT_USAGE : EXIT_SUCCESS;
+            }
+
+            if (arguments.getFirst().equals("--job")) {
+                return arguments.size() == 2 ? job(Path.of(arguments.get(1))) : usage("--job takes one file");
+            }
+
+            return command(arguments);
+        } finally {
+            out.flush();
+        }
+    }
+
+    protected int job(final Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException ex) {
+            return usage("Cannot read the job file " + file);
+        }
+
+        var exitCode = EXIT_SUCCESS;
+        for (var line : lines) {
+            var stripped = line.strip();
+            if (stripped.isEmpty() || stripped.startsWith("#")) {
+                continue;
+            }
+            List<String> arguments;
+            try {
+                arguments = argumentsOf(stripped);
+            } catch (IllegalArgumentException ex) {
+                exitCode = Math.max(exitCode, usage(ex.getMessage()));
+                continue;
+            }
+            exitCode = Math.max(exitCode, command(arguments));
+        }
+        return exitCode;
+    }
+
+    /*
+        Whitespace separated, double quotes keep paths with spaces together
+    */
+    protected List<String> argumentsOf(final String line) {
+        var arguments = new ArrayList<String>();
+        var argument = new StringBuilder();
+        var quoted = false;
+
+        for (var c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (!argument.isEmpty()) {
+                    arguments.add(argument.toString());
+                    argument.setLength(0);
+                }
+            } else {
+                argument.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unbalanced quotes in the job line " + line);
+        }
+        if (!argument.isEmpty()) {
+            arguments.add(argument.toString());
+        }
+        return arguments;
+    }
+
+    /*
+        The arguments are checked here and answered with usage, whatever the command throws afterwards is a failure
+        of that command only
+    */
+    protected int command(final List<String> arguments) {
+        if (arguments.isEmpty()) {
+            return usage("A command is required");
+        }
+
+        var name = arguments.getFirst();
+        var parameters = arguments.subList(1, arguments.size());
+
+        try {
+            return switch (name) {
+                case "hash" -> parameters.isEmpty() ? usage("hash takes at least one path") : hash(parameters);
+                case "shape" -> parameters.isEmpty() ? usage("shape takes at least one shape") : shape(parameters);
+                case "shapes-file" -> parameters.size() == 2 ? shapesFile(Path.of(parameters.get(0)), Path.of(parameters.get(1))) : usage("shapes-file takes a source and a result directory");
+                case "hash-sharded" -> (parameters.size() == 3 || parameters.size() == 4) && parameters.subList(2, parameters.size()).stream().allMatch(this::isPositiveInteger)
+                        ? hashSharded(parameters)
+                        : usage("hash-sharded takes a directory, a result directory, the workers and optionally the shards");
+                case "hash-chunked" -> parameters.size() == 3 ? hashChunked(Path.of(parameters.get(0)), Path.of(parameters.get(1)), Path.of(parameters.get(2))) : usage("hash-chunked takes a directory, a result directory and a chunk index file");
+                case "worker" -> parameters.size() == 1 && isPositiveInteger(parameters.getFirst()) ? worker(Integer.parseInt(parameters.getFirst())) : usage("worker takes the coordinator port");
+                default -> usage("Unknown command " + name);
+            };
+        } catch (InvalidPathException ex) {
+            return usage("Invalid path " + ex.getInput());
+        } catch (RuntimeException ex) {
+            err.println(name + " failed: " + (Objects.isNull(ex.getMessage()) ? ex : ex.getMessage()));
+            return EXIT_FAILURE;
+        }
+    }
+
+    protected int hash(final List<String> paths) {
+        var exitCode = EXIT_SUCCESS;
+        for (var path : paths) {
+            for (var result : ProcessorFile.shared.hashOf(Path.of(path))) {
+                out.println(output == OutputFormat.JSON ? jsonOf(result) : result.toString());
+                if (!result.success()) {
+                    exitCode = EXIT_FAILURE;
+                }
+            }
+        }
+        return exitCode;
+    }
+
+    protected int shape(final List<String> lines) {
+        var exitCode = EXIT_SUCCESS;
+        for (var i = 0; i < lines.size(); i++) {
+            var details = detailsOf(lines.get(i));
+
+            out.println(output == OutputFormat.JSON ? jsonOf(i, details) : i + "|" + details);
+            if (!details.success()) {
+                exitCode = EXIT_FAILURE;
+            }
+        }
+        return exitCode;
+    }
+
+    /*
+        A shape the processor rejects fails alone, the next ones are still processed
+    */
+    protected ShapeDetails detailsOf(final String line) {
+        try {
+            var shape = ShapeParser.shared.parseCsvLine(line);
+            return Objects.isNull(shape) ? ShapeDetails.failure() : ProcessorShape.shared.detailsOf(shape);
+        } catch (RuntimeException ex) {
+            err.println("Shape " + line + " failed: " + ex.getMessage());
+            return ShapeDetails.failure();
+        }
+    }
+
+    protected int shapesFile(final Path source, final Path resultDestination) {
+        if (!Files.isRegularFile(source) || !Files.isDirectory(resultDestination)) {
+            return usage("shapes-file takes an existing source file and result directory");
+        }
+
+        var resultFile = ProcessorShapeFile.shared.processFile(source, ProcessorShapeFile.formatOf(source), resultDestination);
+        out.println(output == OutputFormat.JSON ? String.format("{\"result\":%s}", jsonOf(resultFile.toString())) : resultFile.toString());
+        return EXIT_SUCCESS;
+    }
+
+    protected int hashSharded(final List<String> parameters) {
+        var source = Path.of(parameters.get(0));
+        var resultDestination = Path.of(parameters.get(1));
+        if (!Files.isDirectory(source) || !Files.isDirectory(resultDestination)) {
+            return usage("hash-sharded takes an existing directory and result directory");
+        }
+
+        var workers = Integer.parseInt(parameters.get(2));
+        var coordinator = parameters.size() == 4
+                ? new HashCoordinator(WorkerLauncher.processes(), workers, Integer.parseInt(parameters.get(3)))
+                : new HashCoordinator(WorkerLauncher.processes(), workers);
+
+        var resultFile = coordinator.processFolder(source, resultDestination);
+        out.println(output == OutputFormat.JSON ? String.format("{\"result\":%s}", jsonOf(resultFile.toString())) : resultFile.toString());
+        return EXIT_SUCCESS;
+    }
+
+    protected int hashChunked(final Path source, final Path resultDestination, final Path chunkIndex) {
+        if (!Files.isDirectory(source) || !Files.isDirectory(resultDestination)) {
+            return usage("hash-chunked takes an existing directory and result directory");
+        }
+
+        var processorFile = new ChunkingProcessorFile(ChunkIndex.open(chunkIndex));
+        var job = processorFile.submit(source.toFile(), resultDestination.toFile(), HashJobOptions.defaults());
+        job.await();
+
+        var report = processorFile.reportOf(job);
+        out.print(output == OutputFormat.JSON ? jsonOf(report) + "\n" : report.toString());
+        return EXIT_SUCCESS;
+    }
+
+    protected int worker(final int port) {
+        new HashWorker(ProcessorFile.shared, new InetSocketAddress(InetAddress.getLoopbackAddress(), port)).run();
+        return EXIT_SUCCESS;
+    }
+
+    protected OutputFormat outputOf(final String value) {
+        for (var format : OutputFormat.values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    protected boolean isPositiveInteger(final String value) {
+        try {
+            return Integer.parseInt(value) > 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    protected int usage(final String message) {
+        err.println(message);
+        err.print(USAGE);
+        return EXIT_USAGE;
+    }
+
+    protected String jsonOf(final ProcessFileResult result) {
+        return String.format(
+                "{\"success\":%s,\"hash\":%s,\"error\":%s,\"path\":%s,\"size\":%s,\"duration\":%s}",
+                result.success(),
+                result.success() ? jsonOf(result.hash()) : "null",
+                result.success() || Objects.isNull(result.error()) ? "null" : jsonOf(result.error()),
+                jsonOf(result.file().getAbsolutePath()),
+                result.size(),
+                result.duration()
+        );
+    }
+
+    protected String jsonOf(final DedupeReport report) {
+        return String.format(
+                "{\"files\":%s,\"chunks\":%s,\"bytes\":%s,\"newChunks\":%s,\"newBytes\":%s,\"runSavings\":%s,"
+                        + "\"indexChunks\":%s,\"indexSharedChunks\":%s,\"indexStoredBytes\":%s,\"indexReferencedBytes\":%s,\"indexSavings\":%s}",
+                report.files(),
+                report.chunks(),
+                report.bytes(),
+                report.newChunks(),
+                report.newBytes(),
+                report.runSavings(),
+                report.indexChunks(),
+                report.indexSharedChunks(),
+                report.indexStoredBytes(),
+                report.indexReferencedBytes(),
+                report.indexSavings()
+        );
+    }
+
+    protected String jsonOf(final int index, final ShapeDetails details) {
+        return String.format(
+                "{\"index\":%s,\"success\":%s,\"type\":%s,\"area\":%s,\"distances\":%s,\"angles\":%s}",
+                index,
+                details.success(),
+                Objects.isNull(details.type()) ? "null" : jsonOf(details.type().name()),
+                Objects.isNull(details.area()) ? "null" : details.area().toPlainString(),
+                jsonOf(details.distances()),
+                jsonOf(details.angles())
+        );
+    }
+
+    protected String jsonOf(final List<BigDecimal> values) {
+        return values.stream().map(BigDecimal::toPlainString).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    protected String jsonOf(final String value) {
+        var json = new StringBuilder(value.length() + 2).append('"');
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -12,9 +12,11 @@ import java.util.Scanner;
 @Log4j2
 public class FileEntrypoint implements Entrypoint {
 
-    public static final Entrypoint shared = new FileEntrypoint();
+    protected final Scanner scanner;
 
-    protected final static Scanner scanner = new Scanner(System.in);
+    public FileEntrypoint(final Scanner scanner) {
+        this.scanner = scanner;
+    }
 
     @Override
     public void start() {
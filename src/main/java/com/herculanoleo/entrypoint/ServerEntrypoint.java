@@ -0,0 +1,103 @@
+package com.herculanoleo.entrypoint;
+
+import com.herculanoleo.processor.CachingProcessorFile;
+import com.herculanoleo.server.FileHashServer;
+import com.herculanoleo.server.ShapeServer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+@Log4j2
+public class ServerEntrypoint implements Entrypoint {
+
+    protected final Scanner scanner;
+
+    protected final static int DEFAULT_SHAPE_PORT = 8080;
+
+    protected final static int DEFAULT_HASH_PORT = 8081;
+
+    protected final static String DEFAULT_HASH_TOKEN_FILE = ".shape-hash-server.token";
+
+    protected final static int HASH_CACHE_SIZE = 100_000;
+
+    public ServerEntrypoint(final Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public void start() {
+        var selectedOption = -1;
+
+        while (selectedOption != 0) {
+            System.out.println("_".repeat(20) + "Server" + "_".repeat(20));
+            System.out.println("1 - Shape server");
+            System.out.println("2 - File hash daemon");
+            System.out.println("0 - Exit");
+
+            try {
+                selectedOption = scanner.nextInt();
+
+                switch (selectedOption) {
+                    case 1 -> shapeServer();
+                    case 2 -> fileHashServer();
+                    case 0 -> System.out.println("Exit Server");
+                    default -> throw new RuntimeException("Invalid option");
+                }
+            } catch (Exception ex) {
+                System.out.println("Please enter with a valid option");
+                log.error("An error occurred", ex);
+            }
+        }
+    }
+
+    /*
+        Loopback as well, the local server is not meant to be reached from the network
+    */
+    protected void shapeServer() {
+        var port = Integer.getInteger("shape.server.port", DEFAULT_SHAPE_PORT);
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+        try (var server = new ShapeServer(address).start()) {
+            System.out.printf("Shape server listening on port %s, POST shapes to %s%n", server.address().getPort(), ShapeServer.SHAPES_PATH);
+            awaitStop();
+        } catch (IOException ex) {
+            System.out.println("The shape server could not be started");
+            log.error("An error occurred while starting the shape server", ex);
+        }
+    }
+
+    /*
+        Loopback only and behind the token of a user only file, the daemon hashes any path it is asked for
+    */
+    protected void fileHashServer() {
+        var port = Integer.getInteger("hash.server.port", DEFAULT_HASH_PORT);
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        var tokenFile = Path.of(System.getProperty("hash.server.token.file", Path.of(System.getProperty("user.home"), DEFAULT_HASH_TOKEN_FILE).toString()));
+
+        try (var server = new FileHashServer(address, new CachingProcessorFile(HASH_CACHE_SIZE), FileHashServer.tokenOf(tokenFile)).start()) {
+            System.out.printf("File hash daemon listening on %s, GET %s?path=<path> or POST one path per line%n", server.address(), FileHashServer.HASH_PATH);
+            System.out.printf("Send the token of %s as \"Authorization: Bearer <token>\"%n", tokenFile);
+            awaitStop();
+        } catch (IOException ex) {
+            System.out.println("The file hash daemon could not be started");
+            log.error("An error occurred while starting the file hash daemon", ex);
+        }
+    }
+
+    protected void awaitStop() {
+        var selectedOption = -1;
+        while (selectedOption != 0) {
+            System.out.println("0 - Stop server");
+            try {
+                selectedOption = scanner.nextInt();
+            } catch (Exception ex) {
+                scanner.nextLine();
+                System.out.println("Please enter with a valid option");
+            }
+        }
+    }
+}
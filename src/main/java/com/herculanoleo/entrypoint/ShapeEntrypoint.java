@@ -2,22 +2,28 @@ package com.herculanoleo.entrypoint;
 
 import com.herculanoleo.models.exception.InvalidShapeException;
 import com.herculanoleo.models.exception.JumpingOptionsException;
+import com.herculanoleo.models.exception.ProcessFileException;
 import com.herculanoleo.models.shape.*;
 import com.herculanoleo.processor.ProcessorShape;
+import com.herculanoleo.processor.ProcessorShapeFile;
 import lombok.extern.log4j.Log4j2;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
 
 @Log4j2
 public class ShapeEntrypoint implements Entrypoint {
 
-    public final static Entrypoint shared = new ShapeEntrypoint();
-
-    protected final static Scanner scanner = new Scanner(System.in);
+    protected final Scanner scanner;
 
     protected final static List<String> alphabetic = List.of("A", "B", "C", "D");
 
+    public ShapeEntrypoint(final Scanner scanner) {
+        this.scanner = scanner;
+    }
+
     @Override
     public void start() {
         var selectedOption = -1;
@@ -28,6 +34,7 @@ public class ShapeEntrypoint implements Entrypoint {
             System.out.println("2 - Distances");
             System.out.println("3 - Area");
             System.out.println("4 - Angle");
+            System.out.println("5 - Batch file");
             System.out.println("0 - Exit");
 
             try {
@@ -38,6 +45,7 @@ public class ShapeEntrypoint implements Entrypoint {
                     case 2 -> distancesOf();
                     case 3 -> areaOf();
                     case 4 -> anglesOf();
+                    case 5 -> batchOf();
                     case 0 -> System.out.println("Exit Shape");
                     default -> throw new RuntimeException("Invalid option");
                 }
@@ -133,6 +141,29 @@ public class ShapeEntrypoint implements Entrypoint {
         }
     }
 
+    protected void batchOf() {
+        try {
+            System.out.print("Enter the CSV, binary or dataset shapes file: ");
+            var source = Path.of(scanner.next());
+
+            if (!Files.isRegularFile(source)) {
+                throw new ProcessFileException("Please enter a valid shapes file");
+            }
+
+            System.out.print("Enter the directory that the result of processing will save: ");
+            var resultDestination = Path.of(scanner.next());
+
+            if (!Files.isDirectory(resultDestination)) {
+                throw new ProcessFileException("Please enter a valid directory for saving result file");
+            }
+
+            var resultFile = ProcessorShapeFile.shared.processFile(source, ProcessorShapeFile.formatOf(source), resultDestination);
+            System.out.printf("The result of batch was saved to %s%n", resultFile);
+        } catch (ProcessFileException ex) {
+            System.out.println(ex.getMessage());
+        }
+    }
+
     protected Shape createShape() {
         System.out.println("What shape do you want?");
         System.out.println("1 - Circle");
@@ -0,0 +1,230 @@
+package com.herculanoleo.index;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.BoundingBox;
+import com.herculanoleo.models.shape.CartesianPoint;
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.processor.ProcessorShape;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/*
+    Static R-tree bulk loaded with Sort-Tile-Recursive packing.
+    Every level is an array of boxes, a node covers the children range [start, end) of the level below it
+    and the leaf level points into the shapes.
+*/
+@Log4j2
+public class ShapeIndex {
+
+    protected static final int NODE_CAPACITY = 16;
+
+    protected final ProcessorShape processorShape;
+
+    protected final Shape[] shapes;
+
+    protected final BoundingBox[] shapeBoxes;
+
+    protected final List<Level> levels;
+
+    protected ShapeIndex(final ProcessorShape processorShape, final Shape[] shapes, final BoundingBox[] shapeBoxes, final List<Level> levels) {
+        this.processorShape = processorShape;
+        this.shapes = shapes;
+        this.shapeBoxes = shapeBoxes;
+        this.levels = levels;
+    }
+
+    public static ShapeIndex of(final Collection<? extends Shape> shapes) {
+        return of(ProcessorShape.shared, shapes);
+    }
+
+    public static ShapeIndex of(final ProcessorShape processorShape, final Collection<? extends Shape> shapes) {
+        var source = shapes.toArray(Shape[]::new);
+        var sourceBoxes = new BoundingBox[source.length];
+
+        IntStream.range(0, source.length).parallel().forEach(i -> {
+            if (Objects.isNull(source[i])) {
+                throw new InvalidShapeException();
+            }
+            sourceBoxes[i] = processorShape.boundingBoxOf(source[i]);
+        });
+
+        var order = packOrderOf(sourceBoxes);
+        var packedShapes = new Shape[source.length];
+        var packedBoxes = new BoundingBox[source.length];
+        for (var i = 0; i < order.length; i++) {
+            packedShapes[i] = source[order[i]];
+            packedBoxes[i] = sourceBoxes[order[i]];
+        }
+
+        var levels = new ArrayList<Level>();
+        var childBoxes = packedBoxes;
+
+        while (childBoxes.length > 0) {
+            var level = Level.of(childBoxes);
+            levels.add(level);
+
+            if (level.boxes.length == 1) {
+                break;
+            }
+
+            var levelOrder = packOrderOf(level.boxes);
+            level = level.reorder(levelOrder);
+            levels.set(levels.size() - 1, level);
+            childBoxes = level.boxes;
+        }
+
+        log.debug("Built shape index of {} shapes with {} levels", source.length, levels.size());
+        return new ShapeIndex(processorShape, packedShapes, packedBoxes, levels.reversed());
+    }
+
+    /*
+        Sorts by center x, tiles in vertical slices of slice capacity and sorts every slice by center y
+    */
+    protected static int[] packOrderOf(final BoundingBox[] boxes) {
+        var order = new Integer[boxes.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.parallelSort(order, Comparator.comparingDouble(i -> boxes[i].centerX()));
+
+        var leafCount = (boxes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        var sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        var sliceCapacity = Math.max(1, sliceCount) * NODE_CAPACITY;
+
+        IntStream.range(0, (boxes.length + sliceCapacity - 1) / sliceCapacity).parallel().forEach(slice -> {
+            var from = slice * sliceCapacity;
+            var to = Math.min(boxes.length, from + sliceCapacity);
+            Arrays.sort(order, from, to, Comparator.comparingDouble(i -> boxes[i].centerY()));
+        });
+
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    public int size() {
+        return shapes.length;
+    }
+
+    /*
+        Shapes whose bounding box intersects the window
+    */
+    public List<Shape> search(final BoundingBox window) {
+        var result = new ArrayList<Shape>();
+        if (shapes.length == 0) {
+            return result;
+        }
+
+        var stack = new ArrayDeque<int[]>();
+        stack.push(new int[]{0, 0});
+
+        while (!stack.isEmpty()) {
+            var entry = stack.pop();
+            var depth = entry[0];
+            var node = entry[1];
+            var level = levels.get(depth);
+
+            if (!level.boxes[node].intersects(window)) {
+                continue;
+            }
+
+            for (var child = level.starts[node]; child < level.ends[node]; child++) {
+                if (depth + 1 < levels.size()) {
+                    stack.push(new int[]{depth + 1, child});
+                } else if (shapeBoxes[child].intersects(window)) {
+                    result.add(shapes[child]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public List<Shape> containing(final CartesianPoint point) {
+        var x = point.x().doubleValue();
+        var y = point.y().doubleValue();
+
+        var result = new ArrayList<Shape>();
+        for (var candidate : search(new BoundingBox(x, y, x, y))) {
+            if (processorShape.contains(candidate, x, y)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /*
+        Best first search, nodes are ranked by their box distance and shapes by their exact distance,
+        so a shape leaving the queue is closer than everything still in it
+    */
+    public List<Shape> nearest(final CartesianPoint point, final int count) {
+        var x = point.x().doubleValue();
+        var y = point.y().doubleValue();
+
+        var result = new ArrayList<Shape>(Math.max(0, Math.min(count, shapes.length)));
+        if (shapes.length == 0 || count <= 0) {
+            return result;
+        }
+
+        var queue = new PriorityQueue<Candidate>(Comparator.comparingDouble(Candidate::distance));
+        queue.add(new Candidate(0, 0, levels.getFirst().boxes[0].distanceTo(x, y)));
+
+        while (!queue.isEmpty() && result.size() < count) {
+            var candidate = queue.poll();
+
+            if (candidate.depth() == levels.size()) {
+                result.add(shapes[candidate.index()]);
+                continue;
+            }
+
+            var level = levels.get(candidate.depth());
+            for (var child = level.starts[candidate.index()]; child < level.ends[candidate.index()]; child++) {
+                if (candidate.depth() + 1 < levels.size()) {
+                    queue.add(new Candidate(candidate.depth() + 1, child, levels.get(candidate.depth() + 1).boxes[child].distanceTo(x, y)));
+                } else {
+                    queue.add(new Candidate(levels.size(), child, processorShape.distanceTo(shapes[child], x, y)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    protected record Candidate(int depth, int index, double distance) {
+    }
+
+    protected record Level(BoundingBox[] boxes, int[] starts, int[] ends) {
+
+        static Level of(final BoundingBox[] childBoxes) {
+            var count = (childBoxes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            var boxes = new BoundingBox[count];
+            var starts = new int[count];
+            var ends = new int[count];
+
+            IntStream.range(0, count).parallel().forEach(node -> {
+                starts[node] = node * NODE_CAPACITY;
+                ends[node] = Math.min(childBoxes.length, starts[node] + NODE_CAPACITY);
+
+                var box = childBoxes[starts[node]];
+                for (var child = starts[node] + 1; child < ends[node]; child++) {
+                    box = BoundingBox.union(box, childBoxes[child]);
+                }
+                boxes[node] = box;
+            });
+
+            return new Level(boxes, starts, ends);
+        }
+
+        Level reorder(final int[] order) {
+            var reorderedBoxes = new BoundingBox[order.length];
+            var reorderedStarts = new int[order.length];
+            var reorderedEnds = new int[order.length];
+
+            for (var i = 0; i < order.length; i++) {
+                reorderedBoxes[i] = boxes[order[i]];
+                reorderedStarts[i] = starts[order[i]];
+                reorderedEnds[i] = ends[order[i]];
+            }
+
+            return new Level(reorderedBoxes, reorderedStarts, reorderedEnds);
+        }
+    }
+}
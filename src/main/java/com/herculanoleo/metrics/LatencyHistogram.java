@@ -0,0 +1,129 @@
+package com.herculanoleo.metrics;
+
+import com.herculanoleo.models.metrics.LatencySnapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    HDR style log-linear histogram: values below 32 have their own bucket, every power of two above is split
+    in 32 linear sub-buckets, so any recorded value is known within 1/32 of itself with a fixed 15 KB of counters.
+    Recording is a couple of shifts and an atomic increment, the buckets spread the contention on their own
+    and the totals go to striped adders.
+*/
+public class LatencyHistogram {
+
+    protected static final int SUB_BUCKET_BITS = 5;
+
+    protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    protected static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    protected final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    protected final LongAdder count = new LongAdder();
+
+    protected final LongAdder sum = new LongAdder();
+
+    protected final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(final long nanos) {
+        var value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /*
+        Upper bound of the bucket holding the value at the percentile, 0 when nothing was recorded
+    */
+    public long valueAtPercentile(final double percentile) {
+        var counts = countsOf();
+        return valueAtPercentile(counts, Arrays.stream(counts).sum(), percentile);
+    }
+
+    public LatencySnapshot snapshot() {
+        var counts = countsOf();
+        var total = Arrays.stream(counts).sum();
+
+        var recorded = count.sum();
+        return new LatencySnapshot(
+                total,
+                recorded == 0 ? 0 : (double) sum.sum() / recorded,
+                max.get(),
+                valueAtPercentile(counts, total, 50),
+                valueAtPercentile(counts, total, 90),
+                valueAtPercentile(counts, total, 99),
+                valueAtPercentile(counts, total, 99.9)
+        );
+    }
+
+    public void reset() {
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    protected long[] countsOf() {
+        var counts = new long[BUCKET_COUNT];
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    protected long valueAtPercentile(final long[] counts, final long total, final double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+
+        var rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        var seen = 0L;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    protected static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        var shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    protected static long lowerBoundOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+    }
+
+    protected static long upperBoundOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return lowerBoundOf(index) + (1L << shift) - 1;
+    }
+}
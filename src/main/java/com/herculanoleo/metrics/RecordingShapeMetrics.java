@@ -0,0 +1,172 @@
+package com.herculanoleo.metrics;
+
+import com.herculanoleo.models.metrics.LatencySnapshot;
+import com.herculanoleo.models.metrics.ShapeMetricsSnapshot;
+import com.herculanoleo.models.metrics.ShapeOperation;
+import com.herculanoleo.models.shape.ShapeTag;
+import com.herculanoleo.models.shape.ShapeType;
+import lombok.extern.log4j.Log4j2;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/*
+    Counters are striped LongAdders indexed by ordinal and latencies have one histogram per operation and shape tag,
+    so recording never takes a lock nor allocates
+*/
+@Log4j2
+public class RecordingShapeMetrics implements ShapeMetrics, ShapeMetricsMXBean {
+
+    protected static final ShapeType[] TYPES = ShapeType.values();
+
+    protected static final ShapeTag[] TAGS = ShapeTag.values();
+
+    protected static final ShapeOperation[] OPERATIONS = ShapeOperation.values();
+
+    protected final LongAdder[] typeCounts = new LongAdder[TYPES.length];
+
+    protected final LongAdder invalidShapeCount = new LongAdder();
+
+    protected final LatencyHistogram[][] latencies = new LatencyHistogram[OPERATIONS.length][TAGS.length];
+
+    public RecordingShapeMetrics() {
+        for (var type = 0; type < TYPES.length; type++) {
+            typeCounts[type] = new LongAdder();
+        }
+        for (var operation = 0; operation < OPERATIONS.length; operation++) {
+            for (var tag = 0; tag < TAGS.length; tag++) {
+                latencies[operation][tag] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /*
+        Publishes the metrics as com.herculanoleo:type=ShapeMetrics,name=<name> on the platform MBean server
+    */
+    public RecordingShapeMetrics register(final String name) {
+        try {
+            var objectName = ObjectName.getInstance("com.herculanoleo:type=ShapeMetrics,name=" + ObjectName.quote(name));
+
+            var server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            log.debug("Shape metrics registered as {}", objectName);
+        } catch (JMException ex) {
+            log.warn("The shape metrics could not be registered on JMX", ex);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean enabled() {
+        return true;
+    }
+
+    @Override
+    public void recordType(final ShapeType type) {
+        typeCounts[type.ordinal()].increment();
+    }
+
+    @Override
+    public void recordInvalidShape() {
+        invalidShapeCount.increment();
+    }
+
+    @Override
+    public void recordLatency(final ShapeOperation operation, final ShapeTag tag, final long nanos) {
+        latencies[operation.ordinal()][tag.ordinal()].record(nanos);
+    }
+
+    @Override
+    public ShapeMetricsSnapshot snapshot() {
+        var types = new EnumMap<ShapeType, Long>(ShapeType.class);
+        for (var type : TYPES) {
+            types.put(type, typeCounts[type.ordinal()].sum());
+        }
+
+        var operations = new EnumMap<ShapeOperation, Map<ShapeTag, LatencySnapshot>>(ShapeOperation.class);
+        for (var operation : OPERATIONS) {
+            var tags = new EnumMap<ShapeTag, LatencySnapshot>(ShapeTag.class);
+            for (var tag : TAGS) {
+                tags.put(tag, latencies[operation.ordinal()][tag.ordinal()].snapshot());
+            }
+            operations.put(operation, tags);
+        }
+
+        return new ShapeMetricsSnapshot(types, invalidShapeCount.sum(), operations);
+    }
+
+    @Override
+    public Map<String, Long> getTypeCounts() {
+        var counts = new TreeMap<String, Long>();
+        for (var type : TYPES) {
+            counts.put(type.name(), typeCounts[type.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getClassifiedCount() {
+        var count = 0L;
+        for (var typeCount : typeCounts) {
+            count += typeCount.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getInvalidShapeCount() {
+        return invalidShapeCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getLatencyCounts() {
+        return latenciesOf(LatencyHistogram::count);
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP50Nanos() {
+        return latenciesOf(histogram -> histogram.valueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99Nanos() {
+        return latenciesOf(histogram -> histogram.valueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxNanos() {
+        return latenciesOf(LatencyHistogram::max);
+    }
+
+    @Override
+    public void reset() {
+        for (var typeCount : typeCounts) {
+            typeCount.reset();
+        }
+        invalidShapeCount.reset();
+        for (var operation : latencies) {
+            for (var histogram : operation) {
+                histogram.reset();
+            }
+        }
+    }
+
+    protected Map<String, Long> latenciesOf(final ToLongFunction<LatencyHistogram> value) {
+        var values = new TreeMap<String, Long>();
+        for (var operation : OPERATIONS) {
+            for (var tag : TAGS) {
+                values.put(operation.name() + "." + tag.name(), value.applyAsLong(latencies[operation.ordinal()][tag.ordinal()]));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,55 @@
+package com.herculanoleo.metrics;
+
+import com.herculanoleo.models.metrics.ShapeMetricsSnapshot;
+import com.herculanoleo.models.metrics.ShapeOperation;
+import com.herculanoleo.models.shape.ShapeTag;
+import com.herculanoleo.models.shape.ShapeType;
+
+import java.util.Map;
+
+/*
+    Callers check enabled() before reading the clock, so the disabled metrics cost a constant false branch
+*/
+public interface ShapeMetrics {
+
+    ShapeMetrics disabled = new ShapeMetrics() {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        @Override
+        public void recordType(final ShapeType type) {
+        }
+
+        @Override
+        public void recordInvalidShape() {
+        }
+
+        @Override
+        public void recordLatency(final ShapeOperation operation, final ShapeTag tag, final long nanos) {
+        }
+
+        @Override
+        public ShapeMetricsSnapshot snapshot() {
+            return new ShapeMetricsSnapshot(Map.of(), 0, Map.of());
+        }
+    };
+
+    boolean enabled();
+
+    void recordType(ShapeType type);
+
+    void recordInvalidShape();
+
+    void recordLatency(ShapeOperation operation, ShapeTag tag, long nanos);
+
+    ShapeMetricsSnapshot snapshot();
+
+    /*
+        Recording metrics published through JMX when the shape.metrics system property is true
+    */
+    static ShapeMetrics fromSystemProperties() {
+        return Boolean.getBoolean("shape.metrics") ? new RecordingShapeMetrics().register("shared") : disabled;
+    }
+}
@@ -0,0 +1,25 @@
+package com.herculanoleo.metrics;
+
+import java.util.Map;
+
+/*
+    Latency maps are keyed by OPERATION.TAG, e.g. AREA.CIRCLE, and hold nanoseconds
+*/
+public interface ShapeMetricsMXBean {
+
+    Map<String, Long> getTypeCounts();
+
+    long getClassifiedCount();
+
+    long getInvalidShapeCount();
+
+    Map<String, Long> getLatencyCounts();
+
+    Map<String, Long> getLatencyP50Nanos();
+
+    Map<String, Long> getLatencyP99Nanos();
+
+    Map<String, Long> getLatencyMaxNanos();
+
+    void reset();
+}
@@ -0,0 +1,11 @@
+package com.herculanoleo.models.command;
+
+/*
+    TEXT: the result file line formats, index|... for shapes
+    JSON: one JSON object per line
+*/
+public enum OutputFormat {
+    TEXT,
+    JSON,
+    ;
+}
@@ -0,0 +1,50 @@
+package com.herculanoleo.models.file;
+
+/*
+    The run counters cover the files hashed by one ChunkingProcessorFile, the index ones everything the chunk
+    index holds, earlier runs included. New chunks are the ones the index did not know before. The index counts
+    one reference per chunk and file version, scanning the same tree again leaves the index counters as they are.
+*/
+public record DedupeReport(long files,
+                           long chunks,
+                           long bytes,
+                           long newChunks,
+                           long newBytes,
+                           long indexChunks,
+                           long indexSharedChunks,
+                           long indexStoredBytes,
+                           long indexReferencedBytes
+) {
+    /*
+        Fraction of this run's bytes already stored in some chunk
+    */
+    public double runSavings() {
+        return bytes == 0 ? 0 : 1 - (double) newBytes / bytes;
+    }
+
+    /*
+        Fraction of every referenced byte the index saves by storing each chunk once
+    */
+    public double indexSavings() {
+        return indexReferencedBytes == 0 ? 0 : 1 - (double) indexStoredBytes / indexReferencedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                        files=%s
+                        chunks=%s
+                        bytes=%s
+                        newChunks=%s
+                        newBytes=%s
+                        runSavings=%.4f
+                        indexChunks=%s
+                        indexSharedChunks=%s
+                        indexStoredBytes=%s
+                        indexReferencedBytes=%s
+                        indexSavings=%.4f
+                        """,
+                files, chunks, bytes, newChunks, newBytes, runSavings(),
+                indexChunks, indexSharedChunks, indexStoredBytes, indexReferencedBytes, indexSavings());
+    }
+}
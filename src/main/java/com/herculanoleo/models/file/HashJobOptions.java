@@ -0,0 +1,23 @@
+package com.herculanoleo.models.file;
+
+/*
+    Priority is the weight of the job in the fair share of the quotas, a job of priority 2 gets twice the permits
+    of a job of priority 1 while both are busy. The budgets cap the files and hash blocks of the job in flight.
+*/
+public record HashJobOptions(int priority, int maxConcurrentFiles, int maxConcurrentBlocks) {
+
+    public static final int DEFAULT_PRIORITY = 1;
+
+    public HashJobOptions {
+        if (priority <= 0 || maxConcurrentFiles <= 0 || maxConcurrentBlocks <= 0) {
+            throw new IllegalArgumentException("The priority and the budgets of a job must be positive");
+        }
+    }
+
+    /*
+        Bounded by the quotas of the processor only
+    */
+    public static HashJobOptions defaults() {
+        return new HashJobOptions(DEFAULT_PRIORITY, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,15 @@
+package com.herculanoleo.models.file;
+
+/*
+    The total is -1 while the directory is still being listed
+*/
+public record HashJobProgress(HashJobStatus status,
+                              long totalFiles,
+                              long processedFiles,
+                              long failedFiles,
+                              long processedBytes
+) {
+    public double fraction() {
+        return totalFiles <= 0 ? 0 : (double) processedFiles / totalFiles;
+    }
+}
@@ -0,0 +1,12 @@
+package com.herculanoleo.models.file;
+
+/*
+    WRITING once every file is hashed and the result file is being written, a job can no longer be cancelled then
+*/
+public enum HashJobStatus {
+    RUNNING,
+    WRITING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -1,12 +1,36 @@
 package com.herculanoleo.models.file;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Objects;
 
-public record ProcessFileResult(Boolean success, File file, String hash, Long duration) {
+/*
+    Outcome of one file, the raw SHA-256 digest when it succeeded and the error when it failed.
+    The hex form only exists when the result is printed, size is read once when the file is hashed.
+*/
+public record ProcessFileResult(boolean success, File file, byte[] digest, String error, long size, long duration) {
+
+    protected static final HexFormat hexFormat = HexFormat.of();
+
+    public static ProcessFileResult success(final File file, final byte[] digest, final long size, final long duration) {
+        return new ProcessFileResult(true, file, digest, null, size, duration);
+    }
+
+    public static ProcessFileResult failure(final File file, final String error, final long duration) {
+        return new ProcessFileResult(false, file, null, error, Objects.isNull(file) ? 0 : file.length(), duration);
+    }
+
+    /*
+        Hex digest, or the error of a failed file as the result file always printed it
+    */
+    public String hash() {
+        return success ? hexFormat.formatHex(digest) : error;
+    }
+
     @Override
     public String toString() {
-        return String.format("%s|SHA256:%s|%s|%s|%s", success, hash, file.getAbsolutePath(), file.length(), duration);
+        return String.format("%s|SHA256:%s|%s|%s|%s", success, hash(), file.getAbsolutePath(), size, duration);
     }
 
     @Override
@@ -14,11 +38,11 @@ public record ProcessFileResult(Boolean success, File file, String hash, Long du
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ProcessFileResult that = (ProcessFileResult) o;
-        return Objects.equals(success, that.success) && Objects.equals(file, that.file) && Objects.equals(hash, that.hash);
+        return success == that.success && Objects.equals(file, that.file) && Arrays.equals(digest, that.digest) && Objects.equals(error, that.error);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(success, file, hash);
+        return Objects.hash(success, file, Arrays.hashCode(digest), error);
     }
 }
@@ -1,4 +1,4 @@
 package com.herculanoleo.models.file;
 
-public record ProcessHashResult(Integer position, String hash) {
+public record ProcessHashResult(int position, byte[] digest) {
 }
@@ -0,0 +1,14 @@
+package com.herculanoleo.models.metrics;
+
+/*
+    Latencies in nanoseconds, percentiles are bucket upper bounds so they are off by at most 1/32 of the value
+*/
+public record LatencySnapshot(long count,
+                              double meanNanos,
+                              long maxNanos,
+                              long p50Nanos,
+                              long p90Nanos,
+                              long p99Nanos,
+                              long p999Nanos
+) {
+}
@@ -0,0 +1,19 @@
+package com.herculanoleo.models.metrics;
+
+import com.herculanoleo.models.shape.ShapeTag;
+import com.herculanoleo.models.shape.ShapeType;
+
+import java.util.Map;
+
+public record ShapeMetricsSnapshot(Map<ShapeType, Long> typeCounts,
+                                   long invalidShapeCount,
+                                   Map<ShapeOperation, Map<ShapeTag, LatencySnapshot>> latencies
+) {
+    public long classifiedCount() {
+        return typeCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public LatencySnapshot latencyOf(final ShapeOperation operation, final ShapeTag tag) {
+        return latencies.get(operation).get(tag);
+    }
+}
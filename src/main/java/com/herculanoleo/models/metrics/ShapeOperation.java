@@ -0,0 +1,8 @@
+package com.herculanoleo.models.metrics;
+
+public enum ShapeOperation {
+    TYPE,
+    AREA,
+    ANGLES,
+    ;
+}
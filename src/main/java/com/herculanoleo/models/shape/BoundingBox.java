@@ -0,0 +1,35 @@
+package com.herculanoleo.models.shape;
+
+public record BoundingBox(double minX, double minY, double maxX, double maxY) {
+
+    public static BoundingBox union(final BoundingBox box1, final BoundingBox box2) {
+        return new BoundingBox(
+                Math.min(box1.minX, box2.minX),
+                Math.min(box1.minY, box2.minY),
+                Math.max(box1.maxX, box2.maxX),
+                Math.max(box1.maxY, box2.maxY)
+        );
+    }
+
+    public double centerX() {
+        return (minX + maxX) / 2;
+    }
+
+    public double centerY() {
+        return (minY + maxY) / 2;
+    }
+
+    public boolean intersects(final BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    public boolean contains(final double x, final double y) {
+        return minX <= x && x <= maxX && minY <= y && y <= maxY;
+    }
+
+    public double distanceTo(final double x, final double y) {
+        var dx = Math.max(0, Math.max(minX - x, x - maxX));
+        var dy = Math.max(0, Math.max(minY - y, y - maxY));
+        return Math.hypot(dx, dy);
+    }
+}
@@ -0,0 +1,82 @@
+package com.herculanoleo.models.shape;
+
+import java.math.BigDecimal;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+    Flyweight over the coordinate columns of a mapped dataset, nothing is copied until toShape or cartesianPoints
+*/
+public final class MappedShape implements Shape {
+
+    private final ShapeTag tag;
+
+    private final DoubleBuffer x;
+
+    private final DoubleBuffer y;
+
+    private final int offset;
+
+    private final int vertexCount;
+
+    public MappedShape(final ShapeTag tag, final DoubleBuffer x, final DoubleBuffer y, final int offset, final int vertexCount) {
+        this.tag = tag;
+        this.x = x;
+        this.y = y;
+        this.offset = offset;
+        this.vertexCount = vertexCount;
+    }
+
+    public ShapeTag tag() {
+        return tag;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public double x(final int vertex) {
+        return x.get(offset + vertex);
+    }
+
+    public double y(final int vertex) {
+        return y.get(offset + vertex);
+    }
+
+    public List<CartesianPoint> cartesianPoints() {
+        var points = new ArrayList<CartesianPoint>(vertexCount);
+        for (var i = 0; i < vertexCount; i++) {
+            points.add(pointOf(i));
+        }
+        return Collections.unmodifiableList(points);
+    }
+
+    /*
+        Materializes the record shape of the tag, null when the vertex count does not match it
+    */
+    public Shape toShape() {
+        return switch (tag) {
+            case CIRCLE -> vertexCount == 2 ? new CircleShape(pointOf(0), pointOf(1)) : null;
+            case RECTANGLE -> vertexCount == 4 ? new RectangleShape(pointOf(0), pointOf(1), pointOf(2), pointOf(3)) : null;
+            case TRIANGLE -> vertexCount == 3 ? new TriangleShape(pointOf(0), pointOf(1), pointOf(2)) : null;
+            case POLYGON -> {
+                var xs = new double[vertexCount];
+                var ys = new double[vertexCount];
+                x.get(offset, xs);
+                y.get(offset, ys);
+                yield new PolygonShape(xs, ys);
+            }
+        };
+    }
+
+    private CartesianPoint pointOf(final int vertex) {
+        return new CartesianPoint(BigDecimal.valueOf(x(vertex)), BigDecimal.valueOf(y(vertex)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MappedShape[tag=%s, vertexCount=%s]", tag, vertexCount);
+    }
+}
@@ -0,0 +1,8 @@
+package com.herculanoleo.models.shape;
+
+public enum Orientation {
+    CLOCKWISE,
+    COUNTER_CLOCKWISE,
+    COLLINEAR,
+    ;
+}
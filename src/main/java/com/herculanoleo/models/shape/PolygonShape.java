@@ -0,0 +1,52 @@
+package com.herculanoleo.models.shape;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/*
+    Vertices are kept as primitive coordinate columns, x[i] and y[i] being the i-th vertex.
+    The columns are copied when the shape is built, the accessors hand them out as is to the kernels
+*/
+public record PolygonShape(double[] x,
+                           double[] y
+) implements Shape {
+    public PolygonShape {
+        x = Objects.isNull(x) ? null : x.clone();
+        y = Objects.isNull(y) ? null : y.clone();
+    }
+
+    public List<CartesianPoint> cartesianPoints() {
+        var size = Math.min(x.length, y.length);
+        var points = new ArrayList<CartesianPoint>(size);
+        for (var i = 0; i < size; i++) {
+            points.add(new CartesianPoint(BigDecimal.valueOf(x[i]), BigDecimal.valueOf(y[i])));
+        }
+        return Collections.unmodifiableList(points);
+    }
+
+    public int vertexCount() {
+        return x.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PolygonShape that = (PolygonShape) o;
+        return Arrays.equals(x, that.x) && Arrays.equals(y, that.y);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(x) + Arrays.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PolygonShape[x=%s, y=%s]", Arrays.toString(x), Arrays.toString(y));
+    }
+}
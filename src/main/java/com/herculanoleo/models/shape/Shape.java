@@ -2,6 +2,6 @@ package com.herculanoleo.models.shape;
 
 import java.util.List;
 
-public sealed interface Shape permits CircleShape, RectangleShape, TriangleShape {
+public sealed interface Shape permits CircleShape, RectangleShape, TriangleShape, PolygonShape, MappedShape {
     List<CartesianPoint> cartesianPoints();
 }
@@ -0,0 +1,25 @@
+package com.herculanoleo.models.shape;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public record ShapeDetails(Boolean success,
+                           ShapeType type,
+                           BigDecimal area,
+                           List<BigDecimal> distances,
+                           List<BigDecimal> angles
+) {
+    public static ShapeDetails failure() {
+        return new ShapeDetails(false, null, null, List.of(), List.of());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s|%s|%s|%s|%s", success, type, area, joinOf(distances), joinOf(angles));
+    }
+
+    private static String joinOf(final List<BigDecimal> values) {
+        return values.stream().map(BigDecimal::toPlainString).collect(Collectors.joining(";"));
+    }
+}
@@ -0,0 +1,13 @@
+package com.herculanoleo.models.shape;
+
+/*
+    CSV: one shape per line, "TYPE,x1,y1,x2,y2,..." where TYPE is CIRCLE, RECTANGLE, TRIANGLE or POLYGON
+    BINARY: one record per shape, a tag byte (ShapeTag ordinal), a vertex count int and the x/y doubles of each vertex
+    DATASET: memory mapped columnar segments, see ShapeDatasetLayout
+*/
+public enum ShapeFormat {
+    CSV,
+    BINARY,
+    DATASET,
+    ;
+}
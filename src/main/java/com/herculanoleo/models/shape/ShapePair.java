@@ -0,0 +1,11 @@
+package com.herculanoleo.models.shape;
+
+/*
+    Positions of two overlapping shapes in the processed list, first < second
+*/
+public record ShapePair(int first, int second) {
+    @Override
+    public String toString() {
+        return String.format("%s|%s", first, second);
+    }
+}
@@ -0,0 +1,10 @@
+package com.herculanoleo.models.shape;
+
+import java.math.BigDecimal;
+
+public record ShapeResult(Boolean success, Shape shape, ShapeType type, BigDecimal area) {
+    @Override
+    public String toString() {
+        return String.format("%s|%s|%s", success, type, area);
+    }
+}
@@ -0,0 +1,9 @@
+package com.herculanoleo.models.shape;
+
+public enum ShapeTag {
+    CIRCLE,
+    RECTANGLE,
+    TRIANGLE,
+    POLYGON,
+    ;
+}
@@ -7,5 +7,7 @@ public enum ShapeType {
     ISOSCELES_TRIANGLE,
     SCALENE_TRIANGLE,
     CIRCLE,
+    CONVEX_POLYGON,
+    CONCAVE_POLYGON,
     ;
 }
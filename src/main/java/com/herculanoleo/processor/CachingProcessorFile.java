@@ -0,0 +1,119 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.ProcessFileResult;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    ProcessorFile keeping the hashes in memory for long-running processes.
+
+    Entries are keyed by the normalized absolute path and validated by mtime and size, a file touched since
+    it was hashed is hashed again. Concurrent requests for the same version of a file share the in-flight
+    computation. Failed hashes and files changed while being hashed are not kept.
+*/
+@Log4j2
+public class CachingProcessorFile extends ProcessorFile {
+
+    protected final int maximumSize;
+
+    protected final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    protected final LongAdder hits = new LongAdder();
+
+    protected final LongAdder misses = new LongAdder();
+
+    public CachingProcessorFile(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache must be positive");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), entries.size());
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    protected ProcessFileResult processFile(final File file) {
+        if (Objects.isNull(file)) {
+            return super.processFile(null);
+        }
+
+        var path = file.toPath().toAbsolutePath().normalize();
+        var version = versionOf(path);
+        if (Objects.isNull(version)) {
+            return super.processFile(file);
+        }
+
+        var computation = new CompletableFuture<ProcessFileResult>();
+        var entry = entries.compute(path, (key, current) ->
+                Objects.nonNull(current) && current.version().equals(version) ? current : new Entry(version, computation));
+
+        if (entry.result() != computation) {
+            hits.increment();
+            return entry.result().join();
+        }
+
+        misses.increment();
+        try {
+            var result = super.processFile(file);
+            computation.complete(result);
+
+            if (!result.success() || !version.equals(versionOf(path))) {
+                entries.remove(path, entry);
+            } else {
+                evictIfFull();
+            }
+            return result;
+        } catch (Throwable ex) {
+            computation.completeExceptionally(ex);
+            entries.remove(path, entry);
+            throw ex;
+        }
+    }
+
+    /*
+        Drops completed entries until the cache is back to its maximum size, in no particular order
+    */
+    protected void evictIfFull() {
+        var iterator = entries.values().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            if (iterator.next().result().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    protected Version versionOf(final Path path) {
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Version(attributes.lastModifiedTime(), attributes.size());
+        } catch (IOException ex) {
+            log.debug("Cannot read the attributes of {}", path, ex);
+            return null;
+        }
+    }
+
+    public record Stats(long hitCount, long missCount, long size) {
+    }
+
+    protected record Version(FileTime lastModified, long size) {
+    }
+
+    protected record Entry(Version version, CompletableFuture<ProcessFileResult> result) {
+    }
+}
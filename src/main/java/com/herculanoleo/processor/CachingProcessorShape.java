@@ -0,0 +1,412 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.metrics.ShapeMetrics;
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    ProcessorShape with a bounded result cache in front of typeOf, areaOf and anglesOf.
+
+    Shapes are keyed on a canonical form: coordinates relative to the smallest vertex, the vertex list rotated
+    to start at it and walked in the winding that gives the smallest sequence, so translated, rotated or
+    reversed copies of the same shape share one entry. Circles are only translated since their first point is the center.
+
+    Entries live in lock striped LRU maps with a TinyLFU admission: when a stripe is full the newcomer replaces
+    the least recently used entry only if it was requested more often, which keeps one-off shapes from flushing the hot ones.
+*/
+public class CachingProcessorShape extends ProcessorShape {
+
+    protected static final int STRIPES = 16;
+
+    protected static final int SKETCH_DEPTH = 4;
+
+    protected final Stripe[] stripes;
+
+    protected final AtomicIntegerArray[] sketch;
+
+    protected final int sketchMask;
+
+    protected final int sketchResetAt;
+
+    protected final LongAdder sketchAdditions = new LongAdder();
+
+    protected final LongAdder hits = new LongAdder();
+
+    protected final LongAdder misses = new LongAdder();
+
+    protected final LongAdder evictions = new LongAdder();
+
+    protected final LongAdder rejections = new LongAdder();
+
+    public CachingProcessorShape(final int maximumSize) {
+        this(maximumSize, ShapeMetrics.disabled);
+    }
+
+    public CachingProcessorShape(final int maximumSize, final ShapeMetrics metrics) {
+        super(metrics);
+
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache must be positive");
+        }
+
+        this.stripes = new Stripe[STRIPES];
+        for (var i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe(Math.max(1, (maximumSize + STRIPES - 1) / STRIPES));
+        }
+
+        var sketchWidth = Integer.highestOneBit(Math.max(64, maximumSize) * 2 - 1);
+        this.sketch = new AtomicIntegerArray[SKETCH_DEPTH];
+        for (var row = 0; row < SKETCH_DEPTH; row++) {
+            this.sketch[row] = new AtomicIntegerArray(sketchWidth);
+        }
+        this.sketchMask = sketchWidth - 1;
+        this.sketchResetAt = maximumSize * 10;
+    }
+
+    @Override
+    protected ShapeType computeTypeOf(final Shape shape) {
+        if (shape instanceof MappedShape mapped) {
+            return computeTypeOf(mapped.toShape());
+        }
+
+        var key = keyOf(shape);
+        var cached = get(key);
+        if (isHit(Objects.nonNull(cached) ? cached.type : null)) {
+            return cached.type;
+        }
+
+        var type = super.computeTypeOf(shape);
+        entryOf(key, cached).type = type;
+        return type;
+    }
+
+    @Override
+    protected BigDecimal computeAreaOf(final Shape shape) {
+        if (shape instanceof MappedShape mapped) {
+            return computeAreaOf(mapped.toShape());
+        }
+
+        var key = keyOf(shape);
+        var cached = get(key);
+        if (isHit(Objects.nonNull(cached) ? cached.area : null)) {
+            return cached.area;
+        }
+
+        var area = super.computeAreaOf(shape);
+
+        // areaOf does not validate, an invalid quad would give a different area for every vertex rotation
+        var type = typeOf(shape, cached);
+        if (Objects.nonNull(type)) {
+            var entry = entryOf(key, cached);
+            entry.type = type;
+            entry.area = area;
+        }
+        return area;
+    }
+
+    /*
+        Angles are kept in canonical vertex order and mapped back to the order of the requested shape
+    */
+    @Override
+    protected List<BigDecimal> computeAnglesOf(final Shape shape) {
+        if (shape instanceof MappedShape mapped) {
+            return computeAnglesOf(mapped.toShape());
+        }
+
+        var key = keyOf(shape);
+        var cached = get(key);
+        if (isHit(Objects.nonNull(cached) ? cached.angles : null)) {
+            return fromCanonical(key, cached.angles);
+        }
+
+        var angles = super.computeAnglesOf(shape);
+        entryOf(key, cached).angles = toCanonical(key, angles);
+        return angles;
+    }
+
+    public Stats stats() {
+        var size = 0L;
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), size);
+    }
+
+    public void clear() {
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.entries.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /*
+        Type from the entry already looked up or computed without another lookup, null for an invalid shape
+    */
+    protected ShapeType typeOf(final Shape shape, final Entry cached) {
+        if (Objects.nonNull(cached) && Objects.nonNull(cached.type)) {
+            return cached.type;
+        }
+        try {
+            return super.computeTypeOf(shape);
+        } catch (InvalidShapeException ex) {
+            return null;
+        }
+    }
+
+    /*
+        One frequency per request, the hit or miss is counted on the value served
+    */
+    protected Entry get(final Key key) {
+        recordFrequency(key);
+
+        var stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            return stripe.entries.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    protected boolean isHit(final Object value) {
+        if (Objects.nonNull(value)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /*
+        The entry to fill for the key, a detached one when the admission policy keeps it out of the cache
+    */
+    protected Entry entryOf(final Key key, final Entry cached) {
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+
+        var stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            var entry = stripe.entries.get(key);
+            if (Objects.nonNull(entry)) {
+                return entry;
+            }
+
+            entry = new Entry();
+
+            if (stripe.entries.size() >= stripe.capacity) {
+                var victim = stripe.entries.keySet().iterator().next();
+                if (frequencyOf(key) <= frequencyOf(victim)) {
+                    rejections.increment();
+                    return entry;
+                }
+                stripe.entries.remove(victim);
+                evictions.increment();
+            }
+
+            stripe.entries.put(key, entry);
+            return entry;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    protected Stripe stripeOf(final Key key) {
+        return stripes[(spread(key.hashCode()) >>> 8) & (STRIPES - 1)];
+    }
+
+    protected void recordFrequency(final Key key) {
+        var hash = spread(key.hashCode());
+        for (var row = 0; row < SKETCH_DEPTH; row++) {
+            sketch[row].incrementAndGet(indexOf(hash, row));
+        }
+
+        sketchAdditions.increment();
+        if (sketchAdditions.sum() >= sketchResetAt) {
+            resetFrequencies();
+        }
+    }
+
+    protected int frequencyOf(final Key key) {
+        var hash = spread(key.hashCode());
+        var frequency = Integer.MAX_VALUE;
+        for (var row = 0; row < SKETCH_DEPTH; row++) {
+            frequency = Math.min(frequency, sketch[row].get(indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    /*
+        Halves every counter so the sketch follows recent popularity instead of the whole history
+    */
+    protected void resetFrequencies() {
+        sketchAdditions.reset();
+        for (var counters : sketch) {
+            for (var i = 0; i < counters.length(); i++) {
+                counters.updateAndGet(i, counter -> counter >>> 1);
+            }
+        }
+    }
+
+    protected int indexOf(final int hash, final int row) {
+        return spread(hash + row * 0x9E3779B9) & sketchMask;
+    }
+
+    protected int spread(final int hash) {
+        var h = hash * 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+
+    protected Key keyOf(final Shape shape) {
+        var coordinates = exactCoordinatesOf(shape);
+        var tag = switch (shape) {
+            case CircleShape ignored -> ShapeTag.CIRCLE;
+            case RectangleShape ignored -> ShapeTag.RECTANGLE;
+            case TriangleShape ignored -> ShapeTag.TRIANGLE;
+            default -> ShapeTag.POLYGON;
+        };
+
+        var size = coordinates.x().length;
+
+        if (tag == ShapeTag.CIRCLE) {
+            return new Key(tag, relativeOf(coordinates, 0, 1, size), 0, false);
+        }
+
+        var start = 0;
+        for (var i = 1; i < size; i++) {
+            if (compareVertex(coordinates, i, start) < 0) {
+                start = i;
+            }
+        }
+
+        var forward = relativeOf(coordinates, start, 1, size);
+        var backward = relativeOf(coordinates, start, -1, size);
+
+        return Arrays.compare(forward, backward) <= 0
+                ? new Key(tag, forward, start, false)
+                : new Key(tag, backward, start, true);
+    }
+
+    protected Coordinates exactCoordinatesOf(final Shape shape) {
+        if (Objects.isNull(shape)) {
+            throw new InvalidShapeException();
+        }
+
+        var points = shape.cartesianPoints();
+
+        var x = new BigDecimal[points.size()];
+        var y = new BigDecimal[points.size()];
+        for (var i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            if (Objects.isNull(point) || Objects.isNull(point.x()) || Objects.isNull(point.y())) {
+                throw new InvalidShapeException();
+            }
+            x[i] = point.x();
+            y[i] = point.y();
+        }
+        return new Coordinates(x, y);
+    }
+
+    protected int compareVertex(final Coordinates coordinates, final int vertex1, final int vertex2) {
+        var compareX = coordinates.x()[vertex1].compareTo(coordinates.x()[vertex2]);
+        return compareX != 0 ? compareX : coordinates.y()[vertex1].compareTo(coordinates.y()[vertex2]);
+    }
+
+    protected BigDecimal[] relativeOf(final Coordinates coordinates, final int start, final int step, final int size) {
+        var relative = new BigDecimal[size * 2];
+        var originX = coordinates.x()[start];
+        var originY = coordinates.y()[start];
+
+        for (var i = 0; i < size; i++) {
+            var vertex = Math.floorMod(start + i * step, size);
+            relative[i * 2] = coordinates.x()[vertex].subtract(originX).stripTrailingZeros();
+            relative[i * 2 + 1] = coordinates.y()[vertex].subtract(originY).stripTrailingZeros();
+        }
+
+        return relative;
+    }
+
+    protected List<BigDecimal> toCanonical(final Key key, final List<BigDecimal> angles) {
+        var canonical = new ArrayList<BigDecimal>(angles.size());
+        for (var i = 0; i < angles.size(); i++) {
+            canonical.add(angles.get(originalVertexOf(key, i, angles.size())));
+        }
+        return Collections.unmodifiableList(canonical);
+    }
+
+    protected List<BigDecimal> fromCanonical(final Key key, final List<BigDecimal> canonical) {
+        var angles = new ArrayList<BigDecimal>(Collections.nCopies(canonical.size(), null));
+        for (var i = 0; i < canonical.size(); i++) {
+            angles.set(originalVertexOf(key, i, canonical.size()), canonical.get(i));
+        }
+        return angles;
+    }
+
+    protected int originalVertexOf(final Key key, final int canonicalVertex, final int size) {
+        return Math.floorMod(key.start() + (key.reversed() ? -canonicalVertex : canonicalVertex), size);
+    }
+
+    public record Stats(long hitCount, long missCount, long evictionCount, long rejectionCount, long size) {
+        public double hitRate() {
+            var requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+    }
+
+    protected record Coordinates(BigDecimal[] x, BigDecimal[] y) {
+    }
+
+    /*
+        start and reversed describe how the requested shape maps to the canonical form, they are not part of the identity
+    */
+    protected record Key(ShapeTag tag, BigDecimal[] coordinates, int start, boolean reversed) {
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return tag == that.tag && Arrays.equals(coordinates, that.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tag.hashCode() + Arrays.hashCode(coordinates);
+        }
+    }
+
+    protected static class Entry {
+        volatile ShapeType type;
+
+        volatile BigDecimal area;
+
+        volatile List<BigDecimal> angles;
+    }
+
+    protected static class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+
+        final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        final int capacity;
+
+        Stripe(final int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.chunk.ChunkIndex;
+import com.herculanoleo.chunk.FastCdcChunker;
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.file.DedupeReport;
+import com.herculanoleo.models.file.HashJobOptions;
+import com.herculanoleo.models.file.ProcessHashResult;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    ProcessorFile cutting files at content-defined boundaries instead of fixed 10 MB offsets.
+
+    Chunks are cut sequentially by FastCdcChunker and hashed in parallel on virtual threads, at most
+    CHUNKS_IN_FLIGHT_PER_FILE per file so memory stays bounded on large files. Every chunk digest goes to the chunk
+    index, which gives the dedupe report in the same pass, and the chunks of a fully hashed file are referenced
+    as one version of it. The file hash is still the SHA-256 of the ordered chunk
+    hashes, so it differs from the one of the fixed block mode for files above 10 MB, or above the minimum chunk
+    size here. The run counters of the dedupe report belong to the job hashing the file, found through currentJob,
+    so concurrent or successive jobs never share them.
+*/
+@Log4j2
+public class ChunkingProcessorFile extends ProcessorFile {
+
+    protected static final int CHUNKS_IN_FLIGHT_PER_FILE = 32;
+
+    protected final FastCdcChunker chunker;
+
+    protected final ChunkIndex chunkIndex;
+
+    /*
+        Files hashed by processFile outside of any job
+    */
+    protected final DedupeCounters counters = new DedupeCounters();
+
+    public ChunkingProcessorFile(final ChunkIndex chunkIndex) {
+        this(FastCdcChunker.shared, chunkIndex);
+    }
+
+    public ChunkingProcessorFile(final FastCdcChunker chunker, final ChunkIndex chunkIndex) {
+        this.chunker = chunker;
+        this.chunkIndex = chunkIndex;
+    }
+
+    /*
+        Saves the chunk index and writes the dedupe report next to the result file
+    */
+    @Override
+    protected void jobCompleted(final HashJob job) {
+        chunkIndex.save();
+
+        var report = reportOf(job);
+        var filepath = Path.of(job.resultDestination().getPath(), String.format("dedupe-%s.txt", dateTimeFormatter.format(LocalDateTime.now())));
+        try {
+            FileUtils.writeStringToFile(filepath.toFile(), report.toString(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            log.error("An error occurred while write the dedupe report", ex);
+            throw new ProcessFileException();
+        }
+        log.info("The dedupe report was saved to {}, {} of the bytes were already stored", filepath, String.format("%.2f%%", report.runSavings() * 100));
+    }
+
+    /*
+        Run counters of the job alone, the index counters cover everything the index holds
+    */
+    public DedupeReport reportOf(final HashJob job) {
+        return countersOf(job).reportOf(chunkIndex);
+    }
+
+    /*
+        Run counters of the files hashed outside of any job
+    */
+    public DedupeReport report() {
+        return counters.reportOf(chunkIndex);
+    }
+
+    @Override
+    protected HashJob jobOf(final long id,
+                            final HashJobOptions options,
+                            final File directory,
+                            final File resultDestination,
+                            final FairShareQuota.Lane fileLane,
+                            final FairShareQuota.Lane hashLane) {
+        return new ChunkingJob(id, options, directory, resultDestination, fileLane, hashLane);
+    }
+
+    protected DedupeCounters countersOf(final HashJob job) {
+        return job instanceof ChunkingJob chunkingJob ? chunkingJob.counters : counters;
+    }
+
+    @Override
+    protected Collection<ProcessHashResult> concurrentProcessFileHash(final File file) throws IOException {
+        var concurrentHashResult = new ConcurrentLinkedQueue<ProcessHashResult>();
+        var inFlight = new Semaphore(CHUNKS_IN_FLIGHT_PER_FILE);
+        var lane = hashLane();
+        var fileCounters = countersOf(currentJob.get());
+        var chunks = 0;
+
+        try (var inputStream = Files.newInputStream(file.toPath());
+             var executor = Executors.newThreadPerTaskExecutor(
+                     Thread.ofVirtual()
+                             .name(String.format(HASH_EXECUTOR_NAME_FORMAT, hashExecutorCount.getAndIncrement()))
+                             .factory()
+             )) {
+            var buffer = new byte[chunker.maximumSize() * 2];
+            var start = 0;
+            var end = 0;
+            var endOfFile = false;
+
+            while (true) {
+                if (!endOfFile && end - start < chunker.maximumSize()) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                    end += inputStream.readNBytes(buffer, end, buffer.length - end);
+                    endOfFile = end < buffer.length;
+                }
+                if (start == end) {
+                    break;
+                }
+
+                var length = chunker.cut(buffer, start, end - start);
+                var chunk = Arrays.copyOfRange(buffer, start, start + length);
+                start += length;
+
+                final var it = chunks++;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        lane.acquire();
+                    } catch (InterruptedException ex) {
+                        inFlight.release();
+                        throw new RuntimeException(ex);
+                    }
+                    try {
+                        concurrentHashResult.add(new ProcessHashResult(it, hashChunk(chunk, fileCounters)));
+                    } finally {
+                        lane.release();
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing the chunks of " + file.getAbsolutePath());
+        }
+
+        /*
+            Closing the executor after an interrupt, a cancelled job, interrupts the chunks still waiting for the lane
+            and returns normally, without their digests
+        */
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while hashing the chunks of " + file.getAbsolutePath());
+        }
+        if (concurrentHashResult.size() != chunks) {
+            throw new IOException(String.format("Only %s of the %s chunks of %s were hashed", concurrentHashResult.size(), chunks, file.getAbsolutePath()));
+        }
+
+        addVersion(file, concurrentHashResult);
+        fileCounters.files.increment();
+        return concurrentHashResult;
+    }
+
+    /*
+        Every chunk of the file was hashed, the results hold each position once
+    */
+    protected void addVersion(final File file, final Collection<ProcessHashResult> results) {
+        var digests = new byte[results.size()][];
+        for (var result : results) {
+            digests[result.position()] = result.digest();
+        }
+        chunkIndex.addVersion(file.getAbsolutePath(), Arrays.asList(digests));
+    }
+
+    protected byte[] hashChunk(final byte[] chunk, final DedupeCounters fileCounters) {
+        var digest = DigestUtils.sha256(chunk);
+
+        fileCounters.chunks.increment();
+        fileCounters.bytes.add(chunk.length);
+        if (chunkIndex.add(digest, chunk.length)) {
+            fileCounters.newChunks.increment();
+            fileCounters.newBytes.add(chunk.length);
+        }
+
+        return digest;
+    }
+
+    protected static final class DedupeCounters {
+
+        protected final LongAdder files = new LongAdder();
+
+        protected final LongAdder chunks = new LongAdder();
+
+        protected final LongAdder bytes = new LongAdder();
+
+        protected final LongAdder newChunks = new LongAdder();
+
+        protected final LongAdder newBytes = new LongAdder();
+
+        protected DedupeReport reportOf(final ChunkIndex chunkIndex) {
+            return new DedupeReport(
+                    files.sum(),
+                    chunks.sum(),
+                    bytes.sum(),
+                    newChunks.sum(),
+                    newBytes.sum(),
+                    chunkIndex.chunkCount(),
+                    chunkIndex.sharedChunkCount(),
+                    chunkIndex.storedBytes(),
+                    chunkIndex.referencedBytes()
+            );
+        }
+    }
+
+    /*
+        HashJob carrying the run counters of its files
+    */
+    protected static final class ChunkingJob extends HashJob {
+
+        protected final DedupeCounters counters = new DedupeCounters();
+
+        protected ChunkingJob(final long id,
+                              final HashJobOptions options,
+                              final File directory,
+                              final File resultDestination,
+                              final FairShareQuota.Lane fileLane,
+                              final FairShareQuota.Lane hashLane) {
+            super(id, options, directory, resultDestination, fileLane, hashLane);
+        }
+    }
+}
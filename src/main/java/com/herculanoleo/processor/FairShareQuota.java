@@ -0,0 +1,150 @@
+package com.herculanoleo.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Permits shared by the jobs of a ProcessorFile, one lane per job.
+
+    A lane never holds more than its own limit. When permits are contended the next one goes to the waiting lane
+    using the least of its share, in use divided by weight, so busy jobs split the quota in proportion to their
+    weights and an idle job leaves its share to the others. Only the lane picked is signalled, a release wakes one
+    thread and not every waiter.
+*/
+public class FairShareQuota {
+
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    protected final List<Lane> lanes = new ArrayList<>();
+
+    protected final int permits;
+
+    protected int available;
+
+    public FairShareQuota(final int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("The quota must have at least one permit");
+        }
+        this.permits = permits;
+        this.available = permits;
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    public Lane lane(final int weight, final int limit) {
+        if (weight <= 0 || limit <= 0) {
+            throw new IllegalArgumentException("The weight and the limit of a lane must be positive");
+        }
+
+        lock.lock();
+        try {
+            var lane = new Lane(weight, limit);
+            lanes.add(lane);
+            return lane;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Eligible waiting lane with the smallest share, the oldest lane on ties
+    */
+    protected Lane next() {
+        Lane next = null;
+        for (var lane : lanes) {
+            if (lane.waiting > 0 && lane.inUse < lane.limit
+                    && (Objects.isNull(next) || (long) lane.inUse * next.weight < (long) next.inUse * lane.weight)) {
+                next = lane;
+            }
+        }
+        return next;
+    }
+
+    protected void signalNext() {
+        if (available > 0) {
+            var next = next();
+            if (Objects.nonNull(next)) {
+                next.turn.signal();
+            }
+        }
+    }
+
+    public class Lane implements AutoCloseable {
+
+        protected final int weight;
+
+        protected final int limit;
+
+        protected final Condition turn = lock.newCondition();
+
+        protected int inUse;
+
+        protected int waiting;
+
+        protected Lane(final int weight, final int limit) {
+            this.weight = weight;
+            this.limit = limit;
+        }
+
+        public void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                waiting++;
+                try {
+                    while (available == 0 || next() != this) {
+                        turn.await();
+                    }
+                } finally {
+                    waiting--;
+                }
+                inUse++;
+                available--;
+                signalNext();
+            } catch (InterruptedException ex) {
+                signalNext();
+                throw ex;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void release() {
+            lock.lock();
+            try {
+                inUse--;
+                available++;
+                signalNext();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int inUse() {
+            lock.lock();
+            try {
+                return inUse;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+            Leaves the quota, the permits still held are released as usual
+        */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                lanes.remove(this);
+                signalNext();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.ProcessFileResult;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Aggregated progress of a batch of files, logged every file.progress.interval seconds (10 by default)
+    in place of the per-file lines, which are DEBUG, and once more as a summary when the batch is closed.
+*/
+@Log4j2
+public class FileProgress implements AutoCloseable {
+
+    protected static final Duration INTERVAL = Duration.ofSeconds(Long.getLong("file.progress.interval", 10));
+
+    protected static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("file-progress").daemon().factory()
+    );
+
+    protected final String name;
+
+    protected final long total;
+
+    protected final long startAt = System.nanoTime();
+
+    protected final LongAdder files = new LongAdder();
+
+    protected final LongAdder failures = new LongAdder();
+
+    protected final LongAdder bytes = new LongAdder();
+
+    protected final ScheduledFuture<?> reporting;
+
+    public FileProgress(final String name, final long total) {
+        this.name = name;
+        this.total = total;
+        this.reporting = scheduler.scheduleAtFixedRate(this::logProgress, INTERVAL.toNanos(), INTERVAL.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public void record(final ProcessFileResult result) {
+        files.increment();
+        if (result.success()) {
+            bytes.add(result.size());
+        } else {
+            failures.increment();
+        }
+    }
+
+    public long files() {
+        return files.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    protected void logProgress() {
+        logLine("hashed");
+    }
+
+    protected void logLine(final String verb) {
+        var seconds = Math.max(1e-9, (System.nanoTime() - startAt) / 1e9);
+        var done = files.sum();
+
+        log.info("{} {} {}/{} files ({} failed), {} MB in {}s, {} files/s, {} MB/s",
+                name,
+                verb,
+                done,
+                total,
+                failures.sum(),
+                bytes.sum() / ProcessorFile.BYTES_IN_ONE_MEGABYTE,
+                String.format("%.1f", seconds),
+                String.format("%.1f", done / seconds),
+                String.format("%.1f", bytes.sum() / seconds / ProcessorFile.BYTES_IN_ONE_MEGABYTE));
+    }
+
+    @Override
+    public void close() {
+        if (reporting.cancel(false)) {
+            logLine("finished");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.ProcessFileResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Results of a job in primitive columns indexed by the id of the file in its PathTable.
+
+    A success costs the 32 bytes of its digest, its size, duration and state, a failure its message on top. Each
+    id is written by one file thread only, the columns are read once the file executor is closed. The digests are
+    split in pages so no single array has to hold every file of a large tree.
+*/
+public class FileResultTable {
+
+    protected static final int DIGEST_LENGTH = 32;
+
+    protected static final int PAGE_BITS = 15;
+
+    protected static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    protected static final byte PENDING = 0;
+
+    protected static final byte SUCCESS = 1;
+
+    protected static final byte FAILURE = 2;
+
+    protected static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    protected final PathTable paths;
+
+    protected final byte[][] digests;
+
+    protected final long[] sizes;
+
+    protected final int[] durations;
+
+    protected final byte[] states;
+
+    protected final Map<Integer, String> errors = new ConcurrentHashMap<>();
+
+    public FileResultTable(final PathTable paths) {
+        var size = paths.size();
+        this.paths = paths;
+        this.digests = new byte[(size + PAGE_SIZE - 1) >>> PAGE_BITS][];
+        for (var page = 0; page < digests.length; page++) {
+            digests[page] = new byte[Math.min(PAGE_SIZE, size - (page << PAGE_BITS)) * DIGEST_LENGTH];
+        }
+        this.sizes = new long[size];
+        this.durations = new int[size];
+        this.states = new byte[size];
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    public void record(final int id, final ProcessFileResult result) {
+        if (result.success()) {
+            System.arraycopy(result.digest(), 0, digests[id >>> PAGE_BITS], (id & (PAGE_SIZE - 1)) * DIGEST_LENGTH, DIGEST_LENGTH);
+        } else if (null != result.error()) {
+            errors.put(id, result.error());
+        }
+        sizes[id] = result.size();
+        durations[id] = (int) Math.min(Integer.MAX_VALUE, result.duration());
+        states[id] = result.success() ? SUCCESS : FAILURE;
+    }
+
+    /*
+        Null for a file never hashed, a cancelled job for instance
+    */
+    public ProcessFileResult get(final int id) {
+        return switch (states[id]) {
+            case SUCCESS -> new ProcessFileResult(true, paths.fileOf(id), digestOf(id), null, sizes[id], durations[id]);
+            case FAILURE -> new ProcessFileResult(false, paths.fileOf(id), null, errors.get(id), sizes[id], durations[id]);
+            default -> null;
+        };
+    }
+
+    public List<ProcessFileResult> toList() {
+        var results = new ArrayList<ProcessFileResult>();
+        for (var id = 0; id < states.length; id++) {
+            var result = get(id);
+            if (null != result) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /*
+        Same lines as ProcessFileResult.toString, one per hashed file, hex encoded here without a result object
+    */
+    public void writeTo(final Writer writer) throws IOException {
+        var hex = new char[DIGEST_LENGTH * 2];
+        var first = true;
+
+        for (var id = 0; id < states.length; id++) {
+            if (states[id] == PENDING) {
+                continue;
+            }
+            if (!first) {
+                writer.write('\n');
+            }
+            first = false;
+
+            if (states[id] == SUCCESS) {
+                writer.write("true|SHA256:");
+                var page = digests[id >>> PAGE_BITS];
+                var offset = (id & (PAGE_SIZE - 1)) * DIGEST_LENGTH;
+                for (var i = 0; i < DIGEST_LENGTH; i++) {
+                    hex[i * 2] = HEX_DIGITS[(page[offset + i] >>> 4) & 0xf];
+                    hex[i * 2 + 1] = HEX_DIGITS[page[offset + i] & 0xf];
+                }
+                writer.write(hex);
+            } else {
+                writer.write("false|SHA256:");
+                writer.write(String.valueOf(errors.get(id)));
+            }
+            writer.write('|');
+            writer.write(paths.fileOf(id).getAbsolutePath());
+            writer.write('|');
+            writer.write(Long.toString(sizes[id]));
+            writer.write('|');
+            writer.write(Integer.toString(durations[id]));
+        }
+    }
+
+    protected byte[] digestOf(final int id) {
+        var digest = new byte[DIGEST_LENGTH];
+        System.arraycopy(digests[id >>> PAGE_BITS], (id & (PAGE_SIZE - 1)) * DIGEST_LENGTH, digest, 0, DIGEST_LENGTH);
+        return digest;
+    }
+}
@@ -0,0 +1,179 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.HashJobOptions;
+import com.herculanoleo.models.file.HashJobProgress;
+import com.herculanoleo.models.file.HashJobStatus;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+    Handle of a folder submitted to a ProcessorFile, the result is the path of the result file.
+
+    Every job has its own lanes in the file and hash quotas of the processor, its own progress and executor, so
+    concurrent jobs only meet in the quotas. Cancelling stops the dispatch of new files and interrupts the ones in
+    flight, no result file is written. Cancelling and writing the result file both leave RUNNING through the status,
+    so only one of them happens and a result file is never interrupted half written.
+*/
+public class HashJob {
+
+    protected final long id;
+
+    protected final HashJobOptions options;
+
+    protected final File directory;
+
+    protected final File resultDestination;
+
+    protected final FairShareQuota.Lane fileLane;
+
+    protected final FairShareQuota.Lane hashLane;
+
+    protected final CompletableFuture<Path> result = new CompletableFuture<>();
+
+    protected final AtomicReference<HashJobStatus> status = new AtomicReference<>(HashJobStatus.RUNNING);
+
+    protected volatile FileProgress progress;
+
+    protected volatile ExecutorService executor;
+
+    protected volatile Thread runner;
+
+    protected HashJob(final long id,
+                      final HashJobOptions options,
+                      final File directory,
+                      final File resultDestination,
+                      final FairShareQuota.Lane fileLane,
+                      final FairShareQuota.Lane hashLane) {
+        this.id = id;
+        this.options = options;
+        this.directory = directory;
+        this.resultDestination = resultDestination;
+        this.fileLane = fileLane;
+        this.hashLane = hashLane;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public HashJobOptions options() {
+        return options;
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    public File resultDestination() {
+        return resultDestination;
+    }
+
+    public HashJobStatus status() {
+        return status.get();
+    }
+
+    public HashJobProgress progress() {
+        var current = progress;
+        if (Objects.isNull(current)) {
+            return new HashJobProgress(status(), -1, 0, 0, 0);
+        }
+        return new HashJobProgress(status(), current.total, current.files(), current.failures(), current.bytes());
+    }
+
+    /*
+        Completion stage only, completing the copy does not complete the job
+    */
+    public CompletableFuture<Path> result() {
+        return result.copy();
+    }
+
+    /*
+        Path of the result file, rethrows the failure of the job
+    */
+    public Path await() {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public boolean isCancelled() {
+        return status.get() == HashJobStatus.CANCELLED;
+    }
+
+    /*
+        False when the job already finished or is writing its result file. The job reports CANCELLED at once, its
+        result completes once its files stopped.
+    */
+    public boolean cancel() {
+        if (!status.compareAndSet(HashJobStatus.RUNNING, HashJobStatus.CANCELLED)) {
+            return false;
+        }
+
+        var currentExecutor = executor;
+        if (Objects.nonNull(currentExecutor)) {
+            currentExecutor.shutdownNow();
+        }
+        synchronized (this) {
+            if (Objects.nonNull(runner)) {
+                runner.interrupt();
+            }
+        }
+        return true;
+    }
+
+    protected synchronized FileProgress start(final long total) {
+        runner = Thread.currentThread();
+        progress = new FileProgress("Job " + id, total);
+        return progress;
+    }
+
+    /*
+        The thread that ran the files goes on with other work, cancel no longer interrupts it once this returned and
+        the interrupt a cancel left on it is cleared
+    */
+    protected synchronized void stop() {
+        runner = null;
+        if (isCancelled()) {
+            Thread.interrupted();
+        }
+    }
+
+    /*
+        False when the job was cancelled, cancel has no effect once this returned true
+    */
+    protected boolean startWriting() {
+        return status.compareAndSet(HashJobStatus.RUNNING, HashJobStatus.WRITING);
+    }
+
+    protected void complete(final Path resultFile) {
+        if (status.compareAndSet(HashJobStatus.WRITING, HashJobStatus.COMPLETED)) {
+            result.complete(resultFile);
+        }
+    }
+
+    protected void fail(final Throwable ex) {
+        if (status.compareAndSet(HashJobStatus.RUNNING, HashJobStatus.FAILED) || status.compareAndSet(HashJobStatus.WRITING, HashJobStatus.FAILED)) {
+            result.completeExceptionally(ex);
+        } else {
+            markCancelled();
+        }
+    }
+
+    protected void markCancelled() {
+        if (isCancelled()) {
+            result.completeExceptionally(new CancellationException("Job " + id + " was cancelled"));
+        }
+    }
+}
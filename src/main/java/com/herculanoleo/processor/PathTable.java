@@ -0,0 +1,118 @@
+package com.herculanoleo.processor;
+
+import org.apache.commons.io.filefilter.FileFilterUtils;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Files of a job by id, the id being the position in the listing.
+
+    A directory is stored once and every file keeps the id of its directory and its name as UTF-8 bytes in one
+    shared array, instead of a File and its full path String each. The File is only built again when a file is
+    hashed or printed. Not thread safe while it is filled, read only afterwards.
+*/
+public class PathTable {
+
+    protected static final FileFilter isDirectory = FileFilterUtils.directoryFileFilter();
+
+    protected static final FileFilter isFile = FileFilterUtils.fileFileFilter();
+
+    protected final List<String> directories = new ArrayList<>();
+
+    protected final Map<String, Integer> directoryIds = new HashMap<>();
+
+    protected int[] fileDirectories = new int[64];
+
+    /*
+        Name of the file i is names[nameOffsets[i], nameOffsets[i + 1])
+    */
+    protected int[] nameOffsets = new int[65];
+
+    protected byte[] names = new byte[4096];
+
+    protected int size;
+
+    /*
+        Every file under the directory, the files of a directory before the ones of its sub directories
+    */
+    public static PathTable list(final File directory) {
+        var table = new PathTable();
+        table.addDirectory(directory);
+        return table;
+    }
+
+    public static PathTable of(final Collection<File> files) {
+        var table = new PathTable();
+        files.forEach(table::add);
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public File fileOf(final int id) {
+        var directory = directories.get(fileDirectories[id]);
+        var name = new String(names, nameOffsets[id], nameOffsets[id + 1] - nameOffsets[id], StandardCharsets.UTF_8);
+        return null == directory ? new File(name) : new File(directory, name);
+    }
+
+    public void add(final File file) {
+        add(directoryIdOf(file.getParent()), file.getName());
+    }
+
+    protected void addDirectory(final File directory) {
+        var files = directory.listFiles(isFile);
+
+        if (null != files && files.length > 0) {
+            var directoryId = directoryIdOf(directory.getPath());
+            for (var file : files) {
+                add(directoryId, file.getName());
+            }
+        }
+
+        var subDirectories = directory.listFiles(isDirectory);
+
+        if (null != subDirectories) {
+            for (var sub : subDirectories) {
+                addDirectory(sub);
+            }
+        }
+    }
+
+    /*
+        Null for the files given without a parent, resolved against the working directory as before
+    */
+    protected int directoryIdOf(final String directory) {
+        return directoryIds.computeIfAbsent(directory, key -> {
+            directories.add(key);
+            return directories.size() - 1;
+        });
+    }
+
+    protected void add(final int directoryId, final String name) {
+        var bytes = name.getBytes(StandardCharsets.UTF_8);
+
+        if (size == fileDirectories.length) {
+            fileDirectories = Arrays.copyOf(fileDirectories, size * 2);
+            nameOffsets = Arrays.copyOf(nameOffsets, size * 2 + 1);
+        }
+        var offset = nameOffsets[size];
+        if (offset + bytes.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, offset + bytes.length));
+        }
+
+        System.arraycopy(bytes, 0, names, offset, bytes.length);
+        fileDirectories[size] = directoryId;
+        nameOffsets[size + 1] = offset + bytes.length;
+        size++;
+    }
+}
@@ -1,15 +1,15 @@
 package com.herculanoleo.processor;
 
 import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.file.HashJobOptions;
 import com.herculanoleo.models.file.ProcessFileResult;
 import com.herculanoleo.models.file.ProcessHashResult;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
 
 import java.io.File;
-import java.io.FileFilter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -18,156 +18,328 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
     VirtualThreads
+
+    Folders run as jobs, any number at once. The file and hash permits are quotas of the processor that its jobs
+    share in proportion to their priorities, each job within its own budget, see FairShareQuota. A job owns its
+    executors, counters and progress, nothing is reset or collected when one ends while others keep running.
 */
 @Log4j2
 public class ProcessorFile {
 
-    public static final ProcessorFile shared = new ProcessorFile();
-
-    protected static final FileFilter isDirectory = FileFilterUtils.directoryFileFilter();
-
-    protected static final FileFilter isFile = FileFilterUtils.fileFileFilter();
-
     protected static final int THREADS_PER_FILE = 2;
 
     protected static final int BYTES_IN_ONE_MEGABYTE = 1048576;
 
     protected static final int MEGABYTES_IN_BYTES_BLOCK = 10;
 
+    protected static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    protected static final String JOB_THREAD_NAME_FORMAT = "hash-job-%s";
+
     protected static final String FILE_EXECUTOR_NAME_FORMAT = "file-executor-%s";
 
     protected static final String HASH_EXECUTOR_NAME_FORMAT = "hash-executor-%s";
 
     protected static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
 
-    protected final static Semaphore fileSemaphore = new Semaphore(AVAILABLE_PROCESSORS * 128);
-
-    protected final static Semaphore hashSemaphore = new Semaphore(AVAILABLE_PROCESSORS * 1024);
-    protected static final AtomicInteger fileExecutorCount = new AtomicInteger();
+    protected static final int DEFAULT_FILE_PERMITS = AVAILABLE_PROCESSORS * 128;
 
-    protected static final AtomicInteger hashExecutorCount = new AtomicInteger();
+    protected static final int DEFAULT_HASH_PERMITS = AVAILABLE_PROCESSORS * 1024;
 
     protected static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
 
+    /*
+        Per-file failures, the only lines log4j2.xml rate limits
+    */
+    protected static final Marker FILE_FAILURE = MarkerManager.getMarker("FILE_FAILURE");
+
+    /*
+        Job of the file thread, read by the hashing of the file to find its lane
+    */
+    protected static final ThreadLocal<HashJob> currentJob = new ThreadLocal<>();
+
+    /*
+        After the constants its constructor reads
+    */
+    public static final ProcessorFile shared = new ProcessorFile();
+
+    protected final FairShareQuota fileQuota;
+
+    protected final FairShareQuota hashQuota;
+
+    /*
+        Files hashed outside of any job, processFile called directly
+    */
+    protected final FairShareQuota.Lane defaultHashLane;
+
+    protected final ConcurrentHashMap<Long, HashJob> jobs = new ConcurrentHashMap<>();
+
+    protected final AtomicLong jobCount = new AtomicLong();
+
+    protected final AtomicInteger hashExecutorCount = new AtomicInteger();
+
+    public ProcessorFile() {
+        this(DEFAULT_FILE_PERMITS, DEFAULT_HASH_PERMITS);
+    }
+
+    public ProcessorFile(final int filePermits, final int hashPermits) {
+        this.fileQuota = new FairShareQuota(filePermits);
+        this.hashQuota = new FairShareQuota(hashPermits);
+        this.defaultHashLane = hashQuota.lane(HashJobOptions.DEFAULT_PRIORITY, hashPermits);
+    }
+
     public void processFolder(final File directory, final File resultDestination) {
-        var startAt = LocalDateTime.now();
-        try {
-            if (directory.isDirectory() && resultDestination.isDirectory()) {
-                var filepath = Path.of(resultDestination.getPath(), String.format("result-%s.txt", dateTimeFormatter.format(LocalDateTime.now())));
+        submit(directory, resultDestination, HashJobOptions.defaults()).await();
+    }
 
-                log.info("Start processing directory: {}", directory.getAbsolutePath());
-                log.info("The result of processing directory will save to: {}", filepath.toString());
+    /*
+        Starts hashing the folder on its own thread and returns at once
+    */
+    public HashJob submit(final File directory, final File resultDestination, final HashJobOptions options) {
+        if (!directory.isDirectory() || !resultDestination.isDirectory()) {
+            throw new ProcessFileException();
+        }
 
-                var files = listFile(directory, isFile);
+        var job = newJob(options, directory, resultDestination);
+        Thread.ofVirtual()
+                .name(String.format(JOB_THREAD_NAME_FORMAT, job.id()))
+                .start(() -> runFolder(job));
+        return job;
+    }
 
-                var results = processFiles(files);
+    /*
+        Jobs still running, the anonymous ones of hashOf and processFiles left out
+    */
+    public Collection<HashJob> jobs() {
+        return List.copyOf(jobs.values());
+    }
 
-                var data = results.stream()
-                        .map(ProcessFileResult::toString)
-                        .collect(Collectors.joining("\n"));
+    /*
+        Hash of the file, or of every file under the directory
+    */
+    public Collection<ProcessFileResult> hashOf(final Path path) {
+        var file = path.toFile();
+        if (file.isDirectory()) {
+            return runFiles(PathTable.list(file)).toList();
+        }
+        return List.of(processFile(file));
+    }
 
-                try {
-                    FileUtils.writeStringToFile(filepath.toFile(), data, StandardCharsets.UTF_8);
-                } catch (IOException ex) {
-                    log.error("An error occurred while write the result file", ex);
-                    throw new ProcessFileException();
-                }
+    public Collection<ProcessFileResult> hashOf(final Collection<Path> files) {
+        return processFiles(files.stream().map(Path::toFile).toList());
+    }
 
-                log.info("Finish processing directory: {}", directory.getAbsolutePath());
-            } else {
-                throw new ProcessFileException();
-            }
+    /*
+        Listed by jobs() until finishJob
+    */
+    protected HashJob newJob(final HashJobOptions options, final File directory, final File resultDestination) {
+        var job = jobOf(options, directory, resultDestination);
+        jobs.put(job.id(), job);
+        return job;
+    }
+
+    /*
+        Unlisted job, the anonymous ones run on the calling thread and cannot be cancelled from jobs()
+    */
+    protected HashJob jobOf(final HashJobOptions options, final File directory, final File resultDestination) {
+        return jobOf(
+                jobCount.incrementAndGet(),
+                options,
+                directory,
+                resultDestination,
+                fileQuota.lane(options.priority(), options.maxConcurrentFiles()),
+                hashQuota.lane(options.priority(), options.maxConcurrentBlocks())
+        );
+    }
+
+    /*
+        Overridden by the processors keeping state of their own per job
+    */
+    protected HashJob jobOf(final long id,
+                            final HashJobOptions options,
+                            final File directory,
+                            final File resultDestination,
+                            final FairShareQuota.Lane fileLane,
+                            final FairShareQuota.Lane hashLane) {
+        return new HashJob(id, options, directory, resultDestination, fileLane, hashLane);
+    }
+
+    protected void finishJob(final HashJob job) {
+        jobs.remove(job.id());
+        job.fileLane.close();
+        job.hashLane.close();
+    }
+
+    /*
+        The job leaves the running jobs before its result completes, whoever awaits it sees it finished
+    */
+    protected void runFolder(final HashJob job) {
+        var startAt = LocalDateTime.now();
+        Path resultFile = null;
+        Throwable failure = null;
+
+        try {
+            resultFile = processJobFolder(job);
+        } catch (Throwable ex) {
+            failure = ex;
         } finally {
-            fileExecutorCount.set(0);
-            hashExecutorCount.set(0);
-            log.info("The total processing time was {}s", calculateDurationInSeconds(startAt));
-            System.gc();
+            finishJob(job);
+            log.info("The total processing time was {}s (job {})", calculateDurationInSeconds(startAt), job.id());
+        }
+
+        if (Objects.nonNull(failure)) {
+            job.fail(failure);
+        } else if (Objects.isNull(resultFile)) {
+            job.markCancelled();
+        } else {
+            job.complete(resultFile);
         }
     }
 
-    protected List<File> listFile(final File directory, final FileFilter fileFilter) {
-        var result = new LinkedList<File>();
+    /*
+        Path of the result file, null when the job was cancelled. A result file that could not be fully written is
+        deleted.
+    */
+    protected Path processJobFolder(final HashJob job) {
+        var filepath = Path.of(job.resultDestination().getPath(), String.format("result-%s-%s.txt", dateTimeFormatter.format(LocalDateTime.now()), job.id()));
 
-        var files = directory.listFiles(fileFilter);
+        log.info("Start processing directory: {} (job {})", job.directory().getAbsolutePath(), job.id());
+        log.info("The result of processing directory will save to: {}", filepath.toString());
 
-        if (null != files) {
-            result.addAll(Arrays.asList(files));
+        var results = runJob(job, PathTable.list(job.directory()));
+        if (!job.startWriting()) {
+            log.info("The processing of directory {} was cancelled (job {})", job.directory().getAbsolutePath(), job.id());
+            return null;
         }
 
-        var subDirectories = directory.listFiles(isDirectory);
+        try (var writer = Files.newBufferedWriter(filepath, StandardCharsets.UTF_8)) {
+            results.writeTo(writer);
+        } catch (IOException ex) {
+            log.error("An error occurred while write the result file", ex);
+            deleteQuietly(filepath);
+            throw new ProcessFileException();
+        }
 
-        if (null != subDirectories) {
-            for (var sub : subDirectories) {
-                result.addAll(listFile(sub, fileFilter));
-            }
+        jobCompleted(job);
+
+        log.info("Finish processing directory: {} (job {})", job.directory().getAbsolutePath(), job.id());
+        return filepath;
+    }
+
+    protected void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("The partial result file {} could not be deleted", file, ex);
         }
+    }
 
-        return result;
+    /*
+        Called once the result file of a folder is written, before the job completes
+    */
+    protected void jobCompleted(final HashJob job) {
     }
 
+    /*
+        Files hashed as an anonymous job on the calling thread
+    */
     protected Collection<ProcessFileResult> processFiles(final Collection<File> files) {
-        var processResult = new ConcurrentLinkedQueue<ProcessFileResult>();
+        return runFiles(PathTable.of(files)).toList();
+    }
 
-        try (var executor = Executors.newThreadPerTaskExecutor(
-                Thread.ofVirtual()
-                        .name(String.format(FILE_EXECUTOR_NAME_FORMAT, fileExecutorCount.getAndIncrement()))
-                        .factory()
-        )) {
-            for (var file : files) {
-                executor.submit(() -> {
-                    try {
-                        fileSemaphore.acquire();
-                        var hashResult = this.processFile(file);
-                        processResult.add(hashResult);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    } finally {
-                        fileSemaphore.release();
-                    }
-                });
+    protected FileResultTable runFiles(final PathTable files) {
+        var job = jobOf(HashJobOptions.defaults(), null, null);
+        try {
+            return runJob(job, files);
+        } finally {
+            finishJob(job);
+        }
+    }
+
+    /*
+        The file permit is taken before the file thread starts, a job waiting for the quota holds one parked
+        thread and not one per remaining file
+    */
+    protected FileResultTable runJob(final HashJob job, final PathTable files) {
+        var processResult = new FileResultTable(files);
+
+        try (var progress = job.start(files.size());
+             var executor = Executors.newThreadPerTaskExecutor(
+                     Thread.ofVirtual()
+                             .name(String.format(FILE_EXECUTOR_NAME_FORMAT, job.id()))
+                             .factory()
+             )) {
+            job.executor = executor;
+
+            for (var id = 0; id < files.size(); id++) {
+                if (job.isCancelled()) {
+                    break;
+                }
+
+                final var fileId = id;
+                job.fileLane.acquire();
+                try {
+                    executor.submit(() -> {
+                        currentJob.set(job);
+                        try {
+                            var hashResult = this.processFile(files.fileOf(fileId));
+                            processResult.record(fileId, hashResult);
+                            progress.record(hashResult);
+                        } finally {
+                            currentJob.remove();
+                            job.fileLane.release();
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    job.fileLane.release();
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            if (!job.isCancelled()) {
+                Thread.currentThread().interrupt();
             }
+        } finally {
+            job.stop();
         }
 
         return processResult;
     }
 
+    protected FairShareQuota.Lane hashLane() {
+        var job = currentJob.get();
+        return Objects.isNull(job) ? defaultHashLane : job.hashLane;
+    }
+
     protected ProcessFileResult processFile(final File file) {
         var startAt = LocalDateTime.now();
 
         if (Objects.isNull(file)) {
-            return new ProcessFileResult(false, null, "File not found", calculateDurationInSeconds(startAt));
+            return ProcessFileResult.failure(null, "File not found", calculateDurationInSeconds(startAt));
         }
 
         try {
-            log.info("Start hash processing of file {}", file.getAbsolutePath());
+            log.debug("Start hash processing of file {}", file::getAbsolutePath);
 
+            var size = file.length();
             var concurrentHashResult = concurrentProcessFileHash(file);
 
             var consolidateHash = consolidateHash(file, concurrentHashResult);
 
-            log.info("The hash processing of file {} has been completed with success", file.getAbsolutePath());
-            return new ProcessFileResult(
-                    true,
-                    file,
-                    consolidateHash,
-                    calculateDurationInSeconds(startAt)
-            );
+            log.debug("The hash processing of file {} has been completed with success", file::getAbsolutePath);
+            return ProcessFileResult.success(file, consolidateHash, size, calculateDurationInSeconds(startAt));
         } catch (Throwable ex) {
-            log.error("The hash processing of file {} has been completed with failed", file.getAbsolutePath(), ex);
-            return new ProcessFileResult(
-                    false,
-                    file,
-                    ex.getMessage(),
-                    calculateDurationInSeconds(startAt)
-            );
+            log.error(FILE_FAILURE, "The hash processing of file {} has been completed with failed", file.getAbsolutePath(), ex);
+            return ProcessFileResult.failure(file, ex.getMessage(), calculateDurationInSeconds(startAt));
         }
     }
 
@@ -202,6 +374,7 @@ public class ProcessorFile {
     }
 
     protected void processFileBlock(List<byte[]> bytesBlocks, AtomicInteger concurrentExec, ConcurrentLinkedQueue<ProcessHashResult> concurrentHashResult) {
+        var lane = hashLane();
         try (var executor = Executors.newThreadPerTaskExecutor(
                 Thread.ofVirtual()
                         .name(String.format(HASH_EXECUTOR_NAME_FORMAT, hashExecutorCount.getAndIncrement()))
@@ -211,36 +384,50 @@ public class ProcessorFile {
                 final int it = i;
                 executor.submit(() -> {
                     try {
-                        hashSemaphore.acquire();
+                        lane.acquire();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    try {
                         log.debug("Start processing part {}", it + 1);
                         var hash = getSHA256Hash(bytesBlocks.get(it));
                         log.debug("Finish processing part {}", it + 1);
                         concurrentHashResult.add(new ProcessHashResult(it, hash));
-                    } catch (InterruptedException ex) {
-                        throw new RuntimeException(ex);
                     } finally {
-                        hashSemaphore.release();
+                        lane.release();
                     }
                 });
             }
         }
     }
 
-    protected String consolidateHash(File file, Collection<ProcessHashResult> concurrentHashResult) {
+    /*
+        SHA-256 of the hex of the ordered part digests, the hex is written straight into the digest so the file hash
+        stays the one of the joined hex strings
+    */
+    protected byte[] consolidateHash(File file, Collection<ProcessHashResult> concurrentHashResult) {
         log.debug("Consolidating hash: {}", file.getName());
-        var intermediaryHash = concurrentHashResult.stream()
-                .sorted(Comparator.comparingInt(ProcessHashResult::position))
-                .map(ProcessHashResult::hash)
-                .collect(Collectors.joining());
-
-        return this.getSHA256Hash(intermediaryHash.getBytes(StandardCharsets.UTF_8));
+        var parts = concurrentHashResult.toArray(ProcessHashResult[]::new);
+        Arrays.sort(parts, Comparator.comparingInt(ProcessHashResult::position));
+
+        var digest = DigestUtils.getSha256Digest();
+        var hex = new byte[64];
+        for (var part : parts) {
+            var bytes = part.digest();
+            for (var i = 0; i < bytes.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(bytes[i] >>> 4) & 0xf];
+                hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+            }
+            digest.update(hex, 0, bytes.length * 2);
+        }
+        return digest.digest();
     }
 
-    protected String getSHA256Hash(final byte[] bytes) {
-        return DigestUtils.sha256Hex(bytes);
+    protected byte[] getSHA256Hash(final byte[] bytes) {
+        return DigestUtils.sha256(bytes);
     }
 
-    protected Long calculateDurationInSeconds(LocalDateTime startAt) {
+    protected long calculateDurationInSeconds(LocalDateTime startAt) {
         return Duration.between(startAt, LocalDateTime.now()).getSeconds();
     }
 
@@ -0,0 +1,250 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.CartesianPoint;
+import com.herculanoleo.models.shape.PolygonShape;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+    Fork/Join divide and conquer: every leaf range drops the points strictly inside the quadrilateral of its
+    extreme points and runs Andrew's monotone chain on the rest, two hulls merge with one more chain over their vertices.
+    The minimum bounding rectangle is found with rotating calipers over the hull. It is returned as a four vertex
+    PolygonShape: its corners are rotated doubles, a RectangleShape of them would fail the exact checks of typeOf.
+*/
+public class ProcessorHull {
+
+    public static final ProcessorHull shared = new ProcessorHull();
+
+    protected static final int LEAF_SIZE = 1 << 15;
+
+    public PolygonShape convexHullOf(final Collection<CartesianPoint> points) {
+        var x = new double[points.size()];
+        var y = new double[points.size()];
+        var i = 0;
+        for (var point : points) {
+            if (Objects.isNull(point)) {
+                throw new InvalidShapeException();
+            }
+            x[i] = point.x().doubleValue();
+            y[i] = point.y().doubleValue();
+            i++;
+        }
+        return convexHullOf(x, y);
+    }
+
+    /*
+        Counter clockwise hull without collinear vertices
+    */
+    public PolygonShape convexHullOf(final double[] x, final double[] y) {
+        if (x.length != y.length) {
+            throw new InvalidShapeException();
+        }
+
+        var hull = ForkJoinPool.commonPool().invoke(new HullTask(x, y, 0, x.length));
+
+        if (hull[0].length < 3) {
+            throw new InvalidShapeException("The points do not span an area");
+        }
+
+        return new PolygonShape(hull[0], hull[1]);
+    }
+
+    public PolygonShape minimumBoundingRectangleOf(final Collection<CartesianPoint> points) {
+        return minimumBoundingRectangleOf(convexHullOf(points));
+    }
+
+    public PolygonShape minimumBoundingRectangleOf(final double[] x, final double[] y) {
+        return minimumBoundingRectangleOf(convexHullOf(x, y));
+    }
+
+    /*
+        The best rectangle has a side on an edge of the hull, the three other supporting points only move forward
+        while the edges are walked, so the whole search is linear in the hull size
+    */
+    protected PolygonShape minimumBoundingRectangleOf(final PolygonShape hull) {
+        var x = hull.x();
+        var y = hull.y();
+        var size = x.length;
+
+        var bestArea = Double.POSITIVE_INFINITY;
+        double[] best = null;
+
+        int right = 1, top = 1, left = 1;
+
+        for (var edge = 0; edge < size; edge++) {
+            var next = (edge + 1) % size;
+            var length = Math.hypot(x[next] - x[edge], y[next] - y[edge]);
+            var ux = (x[next] - x[edge]) / length;
+            var uy = (y[next] - y[edge]) / length;
+
+            if (edge == 0) {
+                right = next;
+            }
+            while (dot(x, y, (right + 1) % size, ux, uy) >= dot(x, y, right, ux, uy) && (right + 1) % size != edge) {
+                right = (right + 1) % size;
+            }
+
+            if (edge == 0) {
+                top = right;
+            }
+            while (dot(x, y, (top + 1) % size, -uy, ux) >= dot(x, y, top, -uy, ux) && (top + 1) % size != edge) {
+                top = (top + 1) % size;
+            }
+
+            if (edge == 0) {
+                left = top;
+            }
+            while (dot(x, y, (left + 1) % size, ux, uy) <= dot(x, y, left, ux, uy) && (left + 1) % size != edge) {
+                left = (left + 1) % size;
+            }
+
+            var minU = dot(x, y, left, ux, uy);
+            var maxU = dot(x, y, right, ux, uy);
+            var minV = dot(x, y, edge, -uy, ux);
+            var maxV = dot(x, y, top, -uy, ux);
+            var area = (maxU - minU) * (maxV - minV);
+
+            if (area < bestArea) {
+                bestArea = area;
+                best = new double[]{ux, uy, minU, maxU, minV, maxV};
+            }
+        }
+
+        var ux = best[0];
+        var uy = best[1];
+        var u = new double[]{best[2], best[3], best[3], best[2]};
+        var v = new double[]{best[4], best[4], best[5], best[5]};
+
+        var cornersX = new double[4];
+        var cornersY = new double[4];
+        for (var corner = 0; corner < 4; corner++) {
+            cornersX[corner] = u[corner] * ux - v[corner] * uy;
+            cornersY[corner] = u[corner] * uy + v[corner] * ux;
+        }
+        return new PolygonShape(cornersX, cornersY);
+    }
+
+    protected double dot(final double[] x, final double[] y, final int vertex, final double ux, final double uy) {
+        return x[vertex] * ux + y[vertex] * uy;
+    }
+
+    /*
+        Hull of the points given by the indices, as {x, y} columns
+    */
+    protected static double[][] monotoneChainOf(final double[] x, final double[] y, final Integer[] indices) {
+        Arrays.sort(indices, Comparator.<Integer>comparingDouble(i -> x[i]).thenComparingDouble(i -> y[i]));
+
+        var hull = new int[indices.length * 2];
+        var size = 0;
+
+        for (var index : indices) {
+            while (size >= 2 && cross(x, y, hull[size - 2], hull[size - 1], index) <= 0) {
+                size--;
+            }
+            hull[size++] = index;
+        }
+
+        for (int i = indices.length - 2, lowerSize = size + 1; i >= 0; i--) {
+            while (size >= lowerSize && cross(x, y, hull[size - 2], hull[size - 1], indices[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = indices[i];
+        }
+
+        size = Math.max(0, size - 1);
+        var hullX = new double[size];
+        var hullY = new double[size];
+        for (var i = 0; i < size; i++) {
+            hullX[i] = x[hull[i]];
+            hullY[i] = y[hull[i]];
+        }
+        return new double[][]{hullX, hullY};
+    }
+
+    protected static double cross(final double[] x, final double[] y, final int o, final int a, final int b) {
+        return (x[a] - x[o]) * (y[b] - y[o]) - (y[a] - y[o]) * (x[b] - x[o]);
+    }
+
+    protected static class HullTask extends RecursiveTask<double[][]> {
+
+        protected final double[] x;
+
+        protected final double[] y;
+
+        protected final int from;
+
+        protected final int to;
+
+        protected HullTask(final double[] x, final double[] y, final int from, final int to) {
+            this.x = x;
+            this.y = y;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[][] compute() {
+            if (to - from <= LEAF_SIZE) {
+                return monotoneChainOf(x, y, candidatesOf());
+            }
+
+            var middle = (from + to) >>> 1;
+            var leftTask = new HullTask(x, y, from, middle);
+            leftTask.fork();
+            var right = new HullTask(x, y, middle, to).compute();
+            var left = leftTask.join();
+
+            var mergedX = new double[left[0].length + right[0].length];
+            var mergedY = new double[mergedX.length];
+            System.arraycopy(left[0], 0, mergedX, 0, left[0].length);
+            System.arraycopy(right[0], 0, mergedX, left[0].length, right[0].length);
+            System.arraycopy(left[1], 0, mergedY, 0, left[1].length);
+            System.arraycopy(right[1], 0, mergedY, left[1].length, right[1].length);
+
+            var indices = new Integer[mergedX.length];
+            Arrays.setAll(indices, i -> i);
+            return monotoneChainOf(mergedX, mergedY, indices);
+        }
+
+        /*
+            Akl-Toussaint: a point strictly inside the quadrilateral of the extreme points cannot be on the hull
+        */
+        protected Integer[] candidatesOf() {
+            int minX = from, maxX = from, minY = from, maxY = from;
+            for (var i = from; i < to; i++) {
+                if (x[i] < x[minX]) minX = i;
+                if (x[i] > x[maxX]) maxX = i;
+                if (y[i] < y[minY]) minY = i;
+                if (y[i] > y[maxY]) maxY = i;
+            }
+
+            var quad = new int[]{minX, minY, maxX, maxY};
+            var candidates = new Integer[to - from];
+            var size = 0;
+
+            for (var i = from; i < to; i++) {
+                if (!strictlyInside(quad, i)) {
+                    candidates[size++] = i;
+                }
+            }
+
+            return Arrays.copyOf(candidates, size);
+        }
+
+        protected boolean strictlyInside(final int[] quad, final int point) {
+            for (var i = 0; i < quad.length; i++) {
+                if (cross(x, y, quad[i], quad[(i + 1) % quad.length], point) <= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
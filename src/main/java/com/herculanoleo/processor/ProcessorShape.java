@@ -1,6 +1,8 @@
 package com.herculanoleo.processor;
 
+import com.herculanoleo.metrics.ShapeMetrics;
 import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.metrics.ShapeOperation;
 import com.herculanoleo.models.shape.*;
 
 import java.math.BigDecimal;
@@ -15,15 +17,70 @@ import java.util.*;
 
 public class ProcessorShape {
 
-    public static final ProcessorShape shared = new ProcessorShape();
+    public static final ProcessorShape shared = new ProcessorShape(ShapeMetrics.fromSystemProperties());
 
     protected final static MathContext precision = new MathContext(3, RoundingMode.HALF_EVEN);
 
+    protected final static int MAX_LONG_COORDINATE_DIGITS = 9;
+
+    protected final static BigDecimal TWO = BigDecimal.valueOf(2);
+
+    protected final static BigDecimal FULL_TURN = BigDecimal.valueOf(360);
+
+    /*
+        Two squared lengths are equal when they differ by at most 1/SQUARED_LENGTH_DIVISOR of the larger one, for
+        integer and decimal vertices alike. 8.6601 still gives an equilateral triangle of side 10, and 866 one of
+        side 1000
+    */
+    protected final static long SQUARED_LENGTH_DIVISOR = 10_000;
+
+    protected final static BigDecimal SQUARED_LENGTH_TOLERANCE = BigDecimal.ONE.divide(BigDecimal.valueOf(SQUARED_LENGTH_DIVISOR));
+
+    /*
+        A midpoint gap coordinate at or above it cannot be within the tolerance of any squared diagonal of a long
+        rectangle, below it the squared gap fits in a long
+    */
+    protected final static long MAX_MIDPOINT_GAP = 1L << 31;
+
+    protected final ShapeMetrics metrics;
+
+    public ProcessorShape() {
+        this(ShapeMetrics.disabled);
+    }
+
+    public ProcessorShape(final ShapeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ShapeMetrics metrics() {
+        return metrics;
+    }
+
     public ShapeType typeOf(final Shape shape) {
+        if (!metrics.enabled()) {
+            return computeTypeOf(shape);
+        }
+
+        var startAt = System.nanoTime();
+        try {
+            var type = computeTypeOf(shape);
+            metrics.recordType(type);
+            return type;
+        } catch (InvalidShapeException ex) {
+            metrics.recordInvalidShape();
+            throw ex;
+        } finally {
+            recordLatency(ShapeOperation.TYPE, shape, startAt);
+        }
+    }
+
+    protected ShapeType computeTypeOf(final Shape shape) {
         return switch (shape) {
             case CircleShape circle -> circleTypeOf(circle);
             case RectangleShape rect -> rectTypeOf(rect);
             case TriangleShape triangle -> triangleTypeOf(triangle);
+            case PolygonShape polygon -> polygonTypeOf(polygon);
+            case MappedShape mapped -> computeTypeOf(mapped.toShape());
             case null -> throw new InvalidShapeException();
         };
     }
@@ -57,14 +114,64 @@ public class ProcessorShape {
     }
 
     public BigDecimal areaOf(final Shape shape) {
+        if (!metrics.enabled()) {
+            return computeAreaOf(shape);
+        }
+
+        var startAt = System.nanoTime();
+        try {
+            return computeAreaOf(shape);
+        } catch (InvalidShapeException ex) {
+            metrics.recordInvalidShape();
+            throw ex;
+        } finally {
+            recordLatency(ShapeOperation.AREA, shape, startAt);
+        }
+    }
+
+    protected BigDecimal computeAreaOf(final Shape shape) {
         return switch (shape) {
             case CircleShape circle -> areaCircleOf(circle);
             case RectangleShape rect -> areaRectOf(rect);
             case TriangleShape triangle -> areaTriangleOf(triangle);
+            case PolygonShape polygon -> areaPolygonOf(polygon);
+            case MappedShape mapped -> computeAreaOf(mapped.toShape());
             case null -> throw new InvalidShapeException();
         };
     }
 
+    public ShapeResult resultOf(final Shape shape) {
+        try {
+            return new ShapeResult(true, shape, typeOf(shape), areaOf(shape));
+        } catch (InvalidShapeException | ArithmeticException ex) {
+            return new ShapeResult(false, shape, null, null);
+        }
+    }
+
+    /*
+        Everything known about the shape, circles have no angles
+    */
+    public ShapeDetails detailsOf(final Shape shape) {
+        try {
+            var source = shape instanceof MappedShape mapped ? mapped.toShape() : shape;
+            var type = typeOf(source);
+            var area = areaOf(source);
+            var distances = distancesOf(source);
+            var angles = source instanceof CircleShape ? List.<BigDecimal>of() : anglesOf(source);
+            return new ShapeDetails(true, type, area, distances, angles);
+        } catch (InvalidShapeException | ArithmeticException ex) {
+            return ShapeDetails.failure();
+        }
+    }
+
+    public List<ShapeResult> resultsOf(final List<? extends Shape> shapes) {
+        var results = new ArrayList<ShapeResult>(shapes.size());
+        for (var shape : shapes) {
+            results.add(resultOf(shape));
+        }
+        return results;
+    }
+
     public BigDecimal angleOf(final CartesianPoint a, final CartesianPoint b, final CartesianPoint c) {
         var vectorAB = vectorOf(a, b);
         var vectorAC = vectorOf(a, c);
@@ -84,6 +191,27 @@ public class ProcessorShape {
     }
 
     public List<BigDecimal> anglesOf(final Shape shape) {
+        if (!metrics.enabled()) {
+            return computeAnglesOf(shape);
+        }
+
+        var startAt = System.nanoTime();
+        try {
+            return computeAnglesOf(shape);
+        } catch (InvalidShapeException ex) {
+            metrics.recordInvalidShape();
+            throw ex;
+        } finally {
+            recordLatency(ShapeOperation.ANGLES, shape, startAt);
+        }
+    }
+
+    protected List<BigDecimal> computeAnglesOf(final Shape shape) {
+        var source = shape instanceof MappedShape mapped && mapped.tag() == ShapeTag.POLYGON ? mapped.toShape() : shape;
+        if (source instanceof PolygonShape polygon) {
+            return polygonAnglesOf(polygon);
+        }
+
         var cartesianPoints = shape.cartesianPoints();
 
         var angles = new ArrayList<BigDecimal>(cartesianPoints.size());
@@ -104,37 +232,245 @@ public class ProcessorShape {
         return angles;
     }
 
-    protected ShapeType circleTypeOf(final CircleShape shape) {
-        if (shape.cartesianPoints().stream().allMatch(Objects::nonNull)) {
-            return ShapeType.CIRCLE;
+    /*
+        Interior angles of the polygon. The acos only gives the angle below 180, a reflex vertex turns against the
+        orientation of the polygon and gets 360 minus it
+    */
+    protected List<BigDecimal> polygonAnglesOf(final PolygonShape shape) {
+        validatePolygon(shape);
+
+        var x = shape.x();
+        var y = shape.y();
+        var orientation = Math.signum(signedAreaOf(x, y));
+        var cartesianPoints = shape.cartesianPoints();
+        var size = x.length;
+
+        var angles = new ArrayList<BigDecimal>(size);
+
+        for (var i = 0; i < size; i++) {
+            var previous = i == 0 ? size - 1 : i - 1;
+            var next = i + 1 == size ? 0 : i + 1;
+
+            var angle = angleOf(cartesianPoints.get(i), cartesianPoints.get(next), cartesianPoints.get(previous));
+            var turn = (x[i] - x[previous]) * (y[next] - y[i]) - (y[i] - y[previous]) * (x[next] - x[i]);
+            angles.add(turn * orientation < 0 ? FULL_TURN.subtract(angle) : angle);
         }
 
-        throw new InvalidShapeException();
+        return angles;
+    }
+
+    protected void recordLatency(final ShapeOperation operation, final Shape shape, final long startAt) {
+        var tag = switch (shape) {
+            case CircleShape ignored -> ShapeTag.CIRCLE;
+            case RectangleShape ignored -> ShapeTag.RECTANGLE;
+            case TriangleShape ignored -> ShapeTag.TRIANGLE;
+            case PolygonShape ignored -> ShapeTag.POLYGON;
+            case MappedShape mapped -> mapped.tag();
+            case null -> null;
+        };
+
+        if (Objects.nonNull(tag)) {
+            metrics.recordLatency(operation, tag, System.nanoTime() - startAt);
+        }
     }
 
-    protected Set<Long> countEqualsDistances(final Collection<BigDecimal> ranges) {
-        var rangesCount = new HashSet<Long>();
+    public BigDecimal perimeterOf(final PolygonShape shape) {
+        validatePolygon(shape);
+        return BigDecimal.valueOf(perimeterOf(shape.x(), shape.y())).round(precision);
+    }
 
-        for (var range : ranges) {
-            var count = ranges.stream().filter(rangeAlt -> range.compareTo(rangeAlt) == 0).count();
-            rangesCount.add(count);
+    public boolean isConvex(final PolygonShape shape) {
+        validatePolygon(shape);
+        return isConvex(shape.x(), shape.y());
+    }
+
+    public Orientation orientationOf(final PolygonShape shape) {
+        validatePolygon(shape);
+        var signedArea = signedAreaOf(shape.x(), shape.y());
+        if (signedArea > 0) {
+            return Orientation.COUNTER_CLOCKWISE;
+        } else if (signedArea < 0) {
+            return Orientation.CLOCKWISE;
         }
+        return Orientation.COLLINEAR;
+    }
 
-        return rangesCount;
+    public BoundingBox boundingBoxOf(final Shape shape) {
+        if (isCircle(shape)) {
+            var coordinates = coordinatesOf(shape);
+            var radius = Math.hypot(coordinates[0][1] - coordinates[0][0], coordinates[1][1] - coordinates[1][0]);
+            return new BoundingBox(
+                    coordinates[0][0] - radius,
+                    coordinates[1][0] - radius,
+                    coordinates[0][0] + radius,
+                    coordinates[1][0] + radius
+            );
+        }
+
+        var coordinates = coordinatesOf(shape);
+        var minX = Double.POSITIVE_INFINITY;
+        var minY = Double.POSITIVE_INFINITY;
+        var maxX = Double.NEGATIVE_INFINITY;
+        var maxY = Double.NEGATIVE_INFINITY;
+
+        for (var i = 0; i < coordinates[0].length; i++) {
+            minX = Math.min(minX, coordinates[0][i]);
+            minY = Math.min(minY, coordinates[1][i]);
+            maxX = Math.max(maxX, coordinates[0][i]);
+            maxY = Math.max(maxY, coordinates[1][i]);
+        }
+
+        return new BoundingBox(minX, minY, maxX, maxY);
     }
 
-    protected ShapeType triangleTypeOf(final TriangleShape shape) {
-        if (shape.cartesianPoints().stream().allMatch(Objects::nonNull)) {
-            var distances = distancesOf(shape);
+    /*
+        Points on the boundary are contained
+    */
+    public boolean contains(final Shape shape, final double x, final double y) {
+        var coordinates = coordinatesOf(shape);
+
+        if (isCircle(shape)) {
+            var radius = Math.hypot(coordinates[0][1] - coordinates[0][0], coordinates[1][1] - coordinates[1][0]);
+            return Math.hypot(x - coordinates[0][0], y - coordinates[1][0]) <= radius;
+        }
+
+        var xs = coordinates[0];
+        var ys = coordinates[1];
+        var inside = false;
+
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (segmentDistanceOf(x, y, xs[j], ys[j], xs[i], ys[i]) == 0) {
+                return true;
+            }
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+
+        return inside;
+    }
+
+    /*
+        Euclidean distance from the point to the closest point of the shape, 0 when the shape contains it
+    */
+    public double distanceTo(final Shape shape, final double x, final double y) {
+        if (contains(shape, x, y)) {
+            return 0;
+        }
+
+        var coordinates = coordinatesOf(shape);
+
+        if (isCircle(shape)) {
+            var radius = Math.hypot(coordinates[0][1] - coordinates[0][0], coordinates[1][1] - coordinates[1][0]);
+            return Math.hypot(x - coordinates[0][0], y - coordinates[1][0]) - radius;
+        }
+
+        var xs = coordinates[0];
+        var ys = coordinates[1];
+        var distance = Double.POSITIVE_INFINITY;
+
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            distance = Math.min(distance, segmentDistanceOf(x, y, xs[j], ys[j], xs[i], ys[i]));
+        }
 
-            var countSet = countEqualsDistances(distances);
+        return distance;
+    }
+
+    /*
+        Closed shapes: touching boundaries intersect
+    */
+    public boolean intersects(final Shape shape1, final Shape shape2) {
+        var coordinates1 = coordinatesOf(shape1);
+        var coordinates2 = coordinatesOf(shape2);
+
+        if (isCircle(shape1) && isCircle(shape2)) {
+            var radius1 = Math.hypot(coordinates1[0][1] - coordinates1[0][0], coordinates1[1][1] - coordinates1[1][0]);
+            var radius2 = Math.hypot(coordinates2[0][1] - coordinates2[0][0], coordinates2[1][1] - coordinates2[1][0]);
+            return Math.hypot(coordinates2[0][0] - coordinates1[0][0], coordinates2[1][0] - coordinates1[1][0]) <= radius1 + radius2;
+        } else if (isCircle(shape1)) {
+            var radius = Math.hypot(coordinates1[0][1] - coordinates1[0][0], coordinates1[1][1] - coordinates1[1][0]);
+            return distanceTo(shape2, coordinates1[0][0], coordinates1[1][0]) <= radius;
+        } else if (isCircle(shape2)) {
+            var radius = Math.hypot(coordinates2[0][1] - coordinates2[0][0], coordinates2[1][1] - coordinates2[1][0]);
+            return distanceTo(shape1, coordinates2[0][0], coordinates2[1][0]) <= radius;
+        }
 
-            if (countSet.stream().allMatch(count -> Objects.equals(3L, count))) {
-                return ShapeType.EQUILATERAL_TRIANGLE;
-            } else if (countSet.stream().anyMatch(count -> Objects.equals(2L, count))) {
-                return ShapeType.ISOSCELES_TRIANGLE;
-            } else if (countSet.stream().allMatch(count -> Objects.equals(1L, count))) {
-                return ShapeType.SCALENE_TRIANGLE;
+        var xs1 = coordinates1[0];
+        var ys1 = coordinates1[1];
+        var xs2 = coordinates2[0];
+        var ys2 = coordinates2[1];
+
+        for (int i = 0, j = xs1.length - 1; i < xs1.length; j = i++) {
+            for (int k = 0, l = xs2.length - 1; k < xs2.length; l = k++) {
+                if (segmentsIntersect(xs1[j], ys1[j], xs1[i], ys1[i], xs2[l], ys2[l], xs2[k], ys2[k])) {
+                    return true;
+                }
+            }
+        }
+
+        // no crossing edges, either one shape is inside the other or they are apart
+        return contains(shape1, xs2[0], ys2[0]) || contains(shape2, xs1[0], ys1[0]);
+    }
+
+    /*
+        Double precision area and perimeter for statistics, without the BigDecimal rounding of areaOf
+    */
+    public double approximateAreaOf(final Shape shape) {
+        var coordinates = coordinatesOf(shape);
+
+        if (isCircle(shape)) {
+            var radius = Math.hypot(coordinates[0][1] - coordinates[0][0], coordinates[1][1] - coordinates[1][0]);
+            return Math.PI * radius * radius;
+        }
+
+        return Math.abs(signedAreaOf(coordinates[0], coordinates[1]));
+    }
+
+    public double approximatePerimeterOf(final Shape shape) {
+        var coordinates = coordinatesOf(shape);
+
+        if (isCircle(shape)) {
+            var radius = Math.hypot(coordinates[0][1] - coordinates[0][0], coordinates[1][1] - coordinates[1][0]);
+            return 2 * Math.PI * radius;
+        }
+
+        return perimeterOf(coordinates[0], coordinates[1]);
+    }
+
+    protected ShapeType circleTypeOf(final CircleShape shape) {
+        if (Objects.nonNull(shape.a()) && Objects.nonNull(shape.b())) {
+            return ShapeType.CIRCLE;
+        }
+
+        throw new InvalidShapeException();
+    }
+
+    protected ShapeType triangleTypeOf(final TriangleShape shape) {
+        if (Objects.nonNull(shape.a()) && Objects.nonNull(shape.b()) && Objects.nonNull(shape.c())) {
+            if (fitsInLong(shape.a()) && fitsInLong(shape.b()) && fitsInLong(shape.c())) {
+                var ax = shape.a().x().longValueExact();
+                var ay = shape.a().y().longValueExact();
+                var bx = shape.b().x().longValueExact();
+                var by = shape.b().y().longValueExact();
+                var cx = shape.c().x().longValueExact();
+                var cy = shape.c().y().longValueExact();
+
+                if (crossOf(bx - ax, by - ay, cx - ax, cy - ay) != 0) {
+                    var ab = squaredDistanceOf(ax, ay, bx, by);
+                    var bc = squaredDistanceOf(bx, by, cx, cy);
+                    var ca = squaredDistanceOf(cx, cy, ax, ay);
+                    return triangleTypeOf(isEqualLength(ab, bc), isEqualLength(bc, ca), isEqualLength(ca, ab));
+                }
+            } else {
+                var vectorAB = vectorOf(shape.a(), shape.b());
+                var vectorAC = vectorOf(shape.a(), shape.c());
+
+                if (crossOf(vectorAB, vectorAC).signum() != 0) {
+                    var ab = squaredDistanceOf(shape.a(), shape.b());
+                    var bc = squaredDistanceOf(shape.b(), shape.c());
+                    var ca = squaredDistanceOf(shape.c(), shape.a());
+                    return triangleTypeOf(isEqualLength(ab, bc), isEqualLength(bc, ca), isEqualLength(ca, ab));
+                }
             }
         }
 
@@ -142,21 +478,320 @@ public class ProcessorShape {
     }
 
     protected ShapeType rectTypeOf(final RectangleShape shape) {
-        if (shape.cartesianPoints().stream().allMatch(Objects::nonNull)) {
-            var ranges = distancesOf(shape);
+        if (Objects.nonNull(shape.a()) && Objects.nonNull(shape.b()) && Objects.nonNull(shape.c()) && Objects.nonNull(shape.d())) {
+            if (fitsInLong(shape.a()) && fitsInLong(shape.b()) && fitsInLong(shape.c()) && fitsInLong(shape.d())) {
+                var ax = shape.a().x().longValueExact();
+                var ay = shape.a().y().longValueExact();
+                var bx = shape.b().x().longValueExact();
+                var by = shape.b().y().longValueExact();
+                var cx = shape.c().x().longValueExact();
+                var cy = shape.c().y().longValueExact();
+                var dx = shape.d().x().longValueExact();
+                var dy = shape.d().y().longValueExact();
+
+                var ab = squaredDistanceOf(ax, ay, bx, by);
+                var bc = squaredDistanceOf(bx, by, cx, cy);
+                var ac = squaredDistanceOf(ax, ay, cx, cy);
+                var bd = squaredDistanceOf(bx, by, dx, dy);
+
+                var bisected = isSameMidpoint(ax + cx - bx - dx, ay + cy - by - dy, Math.max(ac, bd));
+
+                return rectTypeOf(bisected && isEqualLength(ac, bd) && ab != 0 && bc != 0, isEqualLength(ab, bc));
+            } else {
+                var ab = squaredDistanceOf(shape.a(), shape.b());
+                var bc = squaredDistanceOf(shape.b(), shape.c());
+                var ac = squaredDistanceOf(shape.a(), shape.c());
+                var bd = squaredDistanceOf(shape.b(), shape.d());
 
-            var countSet = countEqualsDistances(ranges);
+                var gapX = shape.a().x().add(shape.c().x()).subtract(shape.b().x().add(shape.d().x()));
+                var gapY = shape.a().y().add(shape.c().y()).subtract(shape.b().y().add(shape.d().y()));
+                var bisected = isSameMidpoint(gapX, gapY, ac.max(bd));
 
-            if (countSet.stream().allMatch(count -> Objects.equals(4L, count))) {
-                return ShapeType.SQUARE;
-            } else if (countSet.stream().allMatch(count -> Objects.equals(2L, count))) {
-                return ShapeType.RECTANGLE;
+                return rectTypeOf(bisected && isEqualLength(ac, bd) && ab.signum() != 0 && bc.signum() != 0, isEqualLength(ab, bc));
             }
         }
 
         throw new InvalidShapeException();
     }
 
+    protected boolean isCircle(final Shape shape) {
+        return shape instanceof CircleShape || (shape instanceof MappedShape mapped && mapped.tag() == ShapeTag.CIRCLE);
+    }
+
+    /*
+        Vertex coordinates as {x, y} columns, a circle gives its center followed by a point of the circumference
+    */
+    protected double[][] coordinatesOf(final Shape shape) {
+        return switch (shape) {
+            case PolygonShape polygon -> {
+                validatePolygon(polygon);
+                yield new double[][]{polygon.x(), polygon.y()};
+            }
+            case MappedShape mapped -> {
+                var xs = new double[mapped.vertexCount()];
+                var ys = new double[mapped.vertexCount()];
+                for (var i = 0; i < xs.length; i++) {
+                    xs[i] = mapped.x(i);
+                    ys[i] = mapped.y(i);
+                }
+                yield new double[][]{xs, ys};
+            }
+            case null -> throw new InvalidShapeException();
+            default -> {
+                var points = shape.cartesianPoints();
+                var xs = new double[points.size()];
+                var ys = new double[points.size()];
+                for (var i = 0; i < xs.length; i++) {
+                    var point = points.get(i);
+                    if (Objects.isNull(point)) {
+                        throw new InvalidShapeException();
+                    }
+                    xs[i] = point.x().doubleValue();
+                    ys[i] = point.y().doubleValue();
+                }
+                yield new double[][]{xs, ys};
+            }
+        };
+    }
+
+    protected boolean segmentsIntersect(final double x1, final double y1, final double x2, final double y2,
+                                        final double x3, final double y3, final double x4, final double y4) {
+        var d1 = Math.signum((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3));
+        var d2 = Math.signum((x4 - x3) * (y2 - y3) - (y4 - y3) * (x2 - x3));
+        var d3 = Math.signum((x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1));
+        var d4 = Math.signum((x2 - x1) * (y4 - y1) - (y2 - y1) * (x4 - x1));
+
+        if (d1 * d2 < 0 && d3 * d4 < 0) {
+            return true;
+        }
+
+        return (d1 == 0 && onSegment(x3, y3, x4, y4, x1, y1))
+                || (d2 == 0 && onSegment(x3, y3, x4, y4, x2, y2))
+                || (d3 == 0 && onSegment(x1, y1, x2, y2, x3, y3))
+                || (d4 == 0 && onSegment(x1, y1, x2, y2, x4, y4));
+    }
+
+    /*
+        Whether the collinear point (x, y) lies between the segment ends
+    */
+    protected boolean onSegment(final double x1, final double y1, final double x2, final double y2, final double x, final double y) {
+        return Math.min(x1, x2) <= x && x <= Math.max(x1, x2) && Math.min(y1, y2) <= y && y <= Math.max(y1, y2);
+    }
+
+    protected double segmentDistanceOf(final double x, final double y,
+                                       final double x1, final double y1,
+                                       final double x2, final double y2) {
+        var dx = x2 - x1;
+        var dy = y2 - y1;
+        var lengthSquared = dx * dx + dy * dy;
+        var t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
+
+    protected ShapeType polygonTypeOf(final PolygonShape shape) {
+        validatePolygon(shape);
+
+        if (signedAreaOf(shape.x(), shape.y()) == 0) {
+            throw new InvalidShapeException();
+        }
+
+        return isConvex(shape.x(), shape.y()) ? ShapeType.CONVEX_POLYGON : ShapeType.CONCAVE_POLYGON;
+    }
+
+    protected void validatePolygon(final PolygonShape shape) {
+        if (Objects.isNull(shape) || Objects.isNull(shape.x()) || Objects.isNull(shape.y())
+                || shape.x().length != shape.y().length || shape.x().length < 3) {
+            throw new InvalidShapeException();
+        }
+
+        for (var i = 0; i < shape.x().length; i++) {
+            if (!Double.isFinite(shape.x()[i]) || !Double.isFinite(shape.y()[i])) {
+                throw new InvalidShapeException();
+            }
+        }
+    }
+
+    /*
+        Shoelace formula, relative to the first vertex to limit cancellation on far away polygons
+    */
+    protected double signedAreaOf(final double[] x, final double[] y) {
+        var originX = x[0];
+        var originY = y[0];
+        var sum = 0.0;
+
+        for (var i = 1; i < x.length - 1; i++) {
+            sum += (x[i] - originX) * (y[i + 1] - originY) - (x[i + 1] - originX) * (y[i] - originY);
+        }
+
+        return sum / 2;
+    }
+
+    protected double perimeterOf(final double[] x, final double[] y) {
+        var last = x.length - 1;
+        var sum = Math.hypot(x[0] - x[last], y[0] - y[last]);
+
+        for (var i = 0; i < last; i++) {
+            sum += Math.hypot(x[i + 1] - x[i], y[i + 1] - y[i]);
+        }
+
+        return sum;
+    }
+
+    /*
+        Every turn must have the same direction and the edges may wind only once,
+        otherwise self intersecting polygons such as a pentagram would be reported as convex.
+        Zero length edges from repeated vertices are skipped, so the turn around them is still checked
+    */
+    protected boolean isConvex(final double[] x, final double[] y) {
+        var size = x.length;
+        var turn = 0;
+        var xSignChanges = 0;
+        var ySignChanges = 0;
+        var previous = size - 1;
+        while (previous > 0 && x[previous] == x[0] && y[previous] == y[0]) {
+            previous--;
+        }
+        var lastDx = x[0] - x[previous];
+        var lastDy = y[0] - y[previous];
+        var lastXSign = 0;
+        var lastYSign = 0;
+        var firstXSign = 0;
+        var firstYSign = 0;
+
+        for (var i = 0; i < size; i++) {
+            var next = i + 1 == size ? 0 : i + 1;
+            var dx = x[next] - x[i];
+            var dy = y[next] - y[i];
+            if (dx == 0 && dy == 0) {
+                continue;
+            }
+
+            var cross = (int) Math.signum(lastDx * dy - lastDy * dx);
+            if (cross != 0) {
+                if (turn != 0 && cross != turn) {
+                    return false;
+                }
+                turn = cross;
+            }
+
+            var xSign = (int) Math.signum(dx);
+            if (xSign != 0) {
+                if (lastXSign != 0 && xSign != lastXSign) {
+                    xSignChanges++;
+                }
+                if (firstXSign == 0) {
+                    firstXSign = xSign;
+                }
+                lastXSign = xSign;
+            }
+
+            var ySign = (int) Math.signum(dy);
+            if (ySign != 0) {
+                if (lastYSign != 0 && ySign != lastYSign) {
+                    ySignChanges++;
+                }
+                if (firstYSign == 0) {
+                    firstYSign = ySign;
+                }
+                lastYSign = ySign;
+            }
+
+            lastDx = dx;
+            lastDy = dy;
+        }
+
+        if (firstXSign != 0 && firstXSign != lastXSign) {
+            xSignChanges++;
+        }
+        if (firstYSign != 0 && firstYSign != lastYSign) {
+            ySignChanges++;
+        }
+
+        return turn != 0 && xSignChanges <= 2 && ySignChanges <= 2;
+    }
+
+    protected ShapeType triangleTypeOf(final boolean abEqualsBc, final boolean bcEqualsCa, final boolean caEqualsAb) {
+        if (abEqualsBc && bcEqualsCa) {
+            return ShapeType.EQUILATERAL_TRIANGLE;
+        } else if (abEqualsBc || bcEqualsCa || caEqualsAb) {
+            return ShapeType.ISOSCELES_TRIANGLE;
+        }
+        return ShapeType.SCALENE_TRIANGLE;
+    }
+
+    protected ShapeType rectTypeOf(final boolean isRectangle, final boolean adjacentSidesEquals) {
+        if (!isRectangle) {
+            throw new InvalidShapeException();
+        }
+        return adjacentSidesEquals ? ShapeType.SQUARE : ShapeType.RECTANGLE;
+    }
+
+    /*
+        Integral coordinates below 10^9 (< 2^30) keep every squared distance, dot and cross product inside a long.
+        Only precision, scale and signum are read so that scale 0 coordinates are checked and converted without allocating
+    */
+    protected boolean fitsInLong(final CartesianPoint point) {
+        return fitsInLong(point.x()) && fitsInLong(point.y());
+    }
+
+    protected boolean fitsInLong(final BigDecimal value) {
+        return value.signum() == 0 || (value.precision() - value.scale() <= MAX_LONG_COORDINATE_DIGITS && isIntegral(value));
+    }
+
+    protected boolean isIntegral(final BigDecimal value) {
+        return value.signum() == 0 || value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    /*
+        Exact squared lengths, equal when they differ by at most 1/SQUARED_LENGTH_DIVISOR of the larger one so the
+        tolerance grows with the size of the shape (an equilateral triangle has no exact vertices). The long and the
+        decimal forms give the same answer for the same lengths
+    */
+    protected boolean isEqualLength(final long squaredLength1, final long squaredLength2) {
+        return Math.abs(squaredLength1 - squaredLength2) <= Math.max(squaredLength1, squaredLength2) / SQUARED_LENGTH_DIVISOR;
+    }
+
+    protected boolean isEqualLength(final BigDecimal squaredLength1, final BigDecimal squaredLength2) {
+        var difference = squaredLength1.subtract(squaredLength2).abs();
+        return difference.compareTo(squaredLength1.max(squaredLength2).multiply(SQUARED_LENGTH_TOLERANCE)) <= 0;
+    }
+
+    /*
+        The diagonals bisect each other when a + c and b + d, twice their midpoints, are within the length tolerance
+        of the longer squared diagonal. With equal diagonals this is a rectangle, the right angle follows since
+        |ac|^2 - |bd|^2 = 4 * ab.ad in a parallelogram
+    */
+    protected boolean isSameMidpoint(final long gapX, final long gapY, final long squaredDiagonal) {
+        if (Math.abs(gapX) >= MAX_MIDPOINT_GAP || Math.abs(gapY) >= MAX_MIDPOINT_GAP) {
+            return false;
+        }
+        return gapX * gapX + gapY * gapY <= squaredDiagonal / SQUARED_LENGTH_DIVISOR;
+    }
+
+    protected boolean isSameMidpoint(final BigDecimal gapX, final BigDecimal gapY, final BigDecimal squaredDiagonal) {
+        return gapX.multiply(gapX).add(gapY.multiply(gapY)).compareTo(squaredDiagonal.multiply(SQUARED_LENGTH_TOLERANCE)) <= 0;
+    }
+
+    protected long squaredDistanceOf(final long x1, final long y1, final long x2, final long y2) {
+        var dx = x2 - x1;
+        var dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    protected BigDecimal squaredDistanceOf(final CartesianPoint point1, final CartesianPoint point2) {
+        var dx = point2.x().subtract(point1.x());
+        var dy = point2.y().subtract(point1.y());
+        return dx.multiply(dx).add(dy.multiply(dy));
+    }
+
+    protected long crossOf(final long x1, final long y1, final long x2, final long y2) {
+        return x1 * y2 - y1 * x2;
+    }
+
+    protected BigDecimal crossOf(final CartesianPoint vector1, final CartesianPoint vector2) {
+        return vector1.x().multiply(vector2.y()).subtract(vector1.y().multiply(vector2.x()));
+    }
+
     protected BigDecimal areaCircleOf(final CircleShape shape) {
         var radios = distanceOf(shape.a(), shape.b());
 
@@ -172,23 +807,25 @@ public class ProcessorShape {
     }
 
     protected BigDecimal areaTriangleOf(final TriangleShape shape) {
-        var distances = distancesOf(shape);
-        var semiPerimeter = distances.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(2), precision);
-
-        var computed = distances.stream()
-                .map(semiPerimeter::subtract)
-                .reduce(BigDecimal.ZERO, (accumulator, distance) -> {
-                    if (BigDecimal.ZERO.compareTo(accumulator) == 0) {
-                        return distance;
-                    }
-                    return accumulator.multiply(distance);
-                }).multiply(semiPerimeter, precision);
+        var ab = distanceOf(shape.a(), shape.b());
+        var bc = distanceOf(shape.b(), shape.c());
+        var ca = distanceOf(shape.c(), shape.a());
+
+        var semiPerimeter = ab.add(bc).add(ca).divide(TWO, precision);
+
+        var computed = semiPerimeter.subtract(ab)
+                .multiply(semiPerimeter.subtract(bc))
+                .multiply(semiPerimeter.subtract(ca))
+                .multiply(semiPerimeter, precision);
 
         return computed.sqrt(precision);
     }
 
+    protected BigDecimal areaPolygonOf(final PolygonShape shape) {
+        validatePolygon(shape);
+        return BigDecimal.valueOf(Math.abs(signedAreaOf(shape.x(), shape.y()))).round(precision);
+    }
+
     protected CartesianPoint vectorOf(final CartesianPoint point1, final CartesianPoint point2) {
         return new CartesianPoint(point2.x().subtract(point1.x()), point2.y().subtract(point1.y()));
     }
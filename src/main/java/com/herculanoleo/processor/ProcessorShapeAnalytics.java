@@ -0,0 +1,36 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.analytics.ShapeStatistics;
+import com.herculanoleo.analytics.ShapeSummary;
+import com.herculanoleo.models.shape.Shape;
+
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/*
+    One parallel pass over any shape source, every split fills its own ShapeStatistics and the splits are merged
+*/
+public class ProcessorShapeAnalytics {
+
+    public static final ProcessorShapeAnalytics shared = new ProcessorShapeAnalytics(ProcessorShape.shared);
+
+    protected final ProcessorShape processorShape;
+
+    public ProcessorShapeAnalytics(final ProcessorShape processorShape) {
+        this.processorShape = processorShape;
+    }
+
+    public ShapeSummary summaryOf(final Stream<? extends Shape> shapes) {
+        return shapes.parallel().collect(collector());
+    }
+
+    public Collector<Shape, ShapeStatistics, ShapeSummary> collector() {
+        return Collector.of(
+                () -> new ShapeStatistics(processorShape),
+                ShapeStatistics::accept,
+                ShapeStatistics::merge,
+                ShapeStatistics::summary,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+}
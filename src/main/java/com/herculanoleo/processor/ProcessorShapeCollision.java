@@ -0,0 +1,91 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.models.shape.ShapePair;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/*
+    Broad phase: sweep and prune on the x axis of the bounding boxes, every shape is swept in parallel
+    against the shapes starting inside its x extent.
+    Narrow phase: exact ProcessorShape.intersects on the pairs whose boxes overlap on both axes.
+*/
+@Log4j2
+public class ProcessorShapeCollision {
+
+    public static final ProcessorShapeCollision shared = new ProcessorShapeCollision(ProcessorShape.shared);
+
+    protected final ProcessorShape processorShape;
+
+    public ProcessorShapeCollision(final ProcessorShape processorShape) {
+        this.processorShape = processorShape;
+    }
+
+    /*
+        Streams every overlapping pair to the sink as soon as it is found, the sink is called concurrently
+        and the pairs come in no particular order. Returns the number of pairs.
+    */
+    public long overlapsOf(final List<? extends Shape> shapes, final Consumer<ShapePair> sink) {
+        var size = shapes.size();
+        var minX = new double[size];
+        var minY = new double[size];
+        var maxX = new double[size];
+        var maxY = new double[size];
+
+        IntStream.range(0, size).parallel().forEach(i -> {
+            var shape = shapes.get(i);
+            if (Objects.isNull(shape)) {
+                throw new InvalidShapeException();
+            }
+            var box = processorShape.boundingBoxOf(shape);
+            minX[i] = box.minX();
+            minY[i] = box.minY();
+            maxX[i] = box.maxX();
+            maxY[i] = box.maxY();
+        });
+
+        var order = sortedByMinX(minX);
+        var candidates = new LongAdder();
+        var pairs = new LongAdder();
+
+        IntStream.range(0, size).parallel().forEach(position -> {
+            var i = order[position];
+            for (var next = position + 1; next < size && minX[order[next]] <= maxX[i]; next++) {
+                var j = order[next];
+                if (minY[i] <= maxY[j] && minY[j] <= maxY[i]) {
+                    candidates.increment();
+                    if (processorShape.intersects(shapes.get(i), shapes.get(j))) {
+                        pairs.increment();
+                        sink.accept(new ShapePair(Math.min(i, j), Math.max(i, j)));
+                    }
+                }
+            }
+        });
+
+        log.debug("{} shapes, {} broad phase candidates, {} overlapping pairs", size, candidates.sum(), pairs.sum());
+        return pairs.sum();
+    }
+
+    public List<ShapePair> overlapsOf(final List<? extends Shape> shapes) {
+        var pairs = Collections.synchronizedList(new ArrayList<ShapePair>());
+        overlapsOf(shapes, pairs::add);
+        return pairs;
+    }
+
+    protected int[] sortedByMinX(final double[] minX) {
+        var order = new Integer[minX.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.parallelSort(order, Comparator.comparingDouble(i -> minX[i]));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,346 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.dataset.ShapeDataset;
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.shape.*;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+    Chunked NIO reads parsed in parallel, results written back in input order
+*/
+@Log4j2
+public class ProcessorShapeFile {
+
+    public static final ProcessorShapeFile shared = new ProcessorShapeFile();
+
+    protected static final int BYTES_IN_ONE_MEGABYTE = 1048576;
+
+    protected static final int MEGABYTES_IN_CHUNK = 4;
+
+    protected static final int BINARY_HEADER_BYTES = Byte.BYTES + Integer.BYTES;
+
+    protected static final int BINARY_VERTEX_BYTES = Double.BYTES * 2;
+
+    protected static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    protected static final int MAX_CHUNKS_IN_FLIGHT = AVAILABLE_PROCESSORS * 2;
+
+    protected static final int SHAPES_IN_DATASET_CHUNK = 65536;
+
+    protected static final String DATASET_EXTENSION = ".shpd";
+
+    protected static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    protected final ProcessorShape processorShape;
+
+    protected final int chunkSize;
+
+    protected final ShapeParser shapeParser = ShapeParser.shared;
+
+    public ProcessorShapeFile() {
+        this(ProcessorShape.shared, BYTES_IN_ONE_MEGABYTE * MEGABYTES_IN_CHUNK);
+    }
+
+    public ProcessorShapeFile(final ProcessorShape processorShape, final int chunkSize) {
+        this.processorShape = processorShape;
+        this.chunkSize = chunkSize;
+    }
+
+    public static ShapeFormat formatOf(final Path source) {
+        var filename = source.getFileName().toString().toLowerCase();
+        if (filename.endsWith(".csv")) {
+            return ShapeFormat.CSV;
+        } else if (filename.endsWith(DATASET_EXTENSION)) {
+            return ShapeFormat.DATASET;
+        }
+        return ShapeFormat.BINARY;
+    }
+
+    public Path processFile(final Path source, final ShapeFormat format, final Path resultDestination) {
+        var startAt = LocalDateTime.now();
+
+        if (!Files.isRegularFile(source) || !Files.isDirectory(resultDestination)) {
+            throw new ProcessFileException();
+        }
+
+        var filepath = resultDestination.resolve(String.format("shapes-result-%s.txt", dateTimeFormatter.format(startAt)));
+
+        log.info("Start processing shapes file: {}", source.toAbsolutePath());
+        log.info("The result of processing shapes will save to: {}", filepath);
+
+        try (var writer = Files.newBufferedWriter(filepath, StandardCharsets.UTF_8)) {
+            var count = switch (format) {
+                case CSV, BINARY -> {
+                    try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                        yield process(channel, format, writer);
+                    }
+                }
+                case DATASET -> {
+                    try (var dataset = ShapeDataset.open(source)) {
+                        yield process(dataset, writer);
+                    }
+                }
+            };
+            log.info("Finish processing {} shapes from {} in {}s", count, source.toAbsolutePath(), Duration.between(startAt, LocalDateTime.now()).getSeconds());
+        } catch (IOException ex) {
+            log.error("An error occurred while processing the shapes file", ex);
+            throw new ProcessFileException(ex.getMessage());
+        }
+
+        return filepath;
+    }
+
+    /*
+        At most MAX_CHUNKS_IN_FLIGHT chunks are held in memory, the oldest one is written before the next is read
+    */
+    protected long process(final FileChannel channel, final ShapeFormat format, final Writer writer) throws IOException {
+        var pending = new ArrayDeque<Future<List<ShapeResult>>>(MAX_CHUNKS_IN_FLIGHT);
+        var index = 0L;
+
+        var executor = Executors.newFixedThreadPool(AVAILABLE_PROCESSORS);
+        try {
+            var carry = new byte[0];
+            var endOfFile = false;
+
+            while (!endOfFile) {
+                var buffer = ByteBuffer.allocate(carry.length + chunkSize);
+                buffer.put(carry);
+                endOfFile = readFully(channel, buffer);
+                buffer.flip();
+
+                var boundary = endOfFile ? buffer.limit() : boundaryOf(buffer, format);
+
+                if (boundary == 0) {
+                    carry = new byte[buffer.limit()];
+                    buffer.get(carry);
+                    continue;
+                }
+
+                var chunk = buffer.slice(0, boundary);
+                carry = new byte[buffer.limit() - boundary];
+                buffer.get(boundary, carry);
+
+                pending.add(executor.submit(() -> processorShape.resultsOf(parse(chunk, format))));
+
+                if (pending.size() >= MAX_CHUNKS_IN_FLIGHT) {
+                    index = write(pending.poll(), index, writer);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                index = write(pending.poll(), index, writer);
+            }
+        } finally {
+            cancel(pending, executor);
+        }
+
+        return index;
+    }
+
+    /*
+        The dataset is already in memory layout, chunks are index ranges classified straight from the mapped columns
+    */
+    protected long process(final ShapeDataset dataset, final Writer writer) throws IOException {
+        var pending = new ArrayDeque<Future<List<ShapeResult>>>(MAX_CHUNKS_IN_FLIGHT);
+        var index = 0L;
+
+        var executor = Executors.newFixedThreadPool(AVAILABLE_PROCESSORS);
+        try {
+            for (var from = 0L; from < dataset.size(); from += SHAPES_IN_DATASET_CHUNK) {
+                final var fromIndex = from;
+                final var toIndex = Math.min(dataset.size(), from + SHAPES_IN_DATASET_CHUNK);
+
+                pending.add(executor.submit(() -> resultsOf(dataset, fromIndex, toIndex)));
+
+                if (pending.size() >= MAX_CHUNKS_IN_FLIGHT) {
+                    index = write(pending.poll(), index, writer);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                index = write(pending.poll(), index, writer);
+            }
+        } finally {
+            cancel(pending, executor);
+        }
+
+        return index;
+    }
+
+    protected List<ShapeResult> resultsOf(final ShapeDataset dataset, final long fromIndex, final long toIndex) {
+        return processorShape.resultsOf(dataset.stream(fromIndex, toIndex).toList());
+    }
+
+    /*
+        Nothing is pending once every chunk is written. After a failure the chunks not written yet are cancelled and
+        the running ones interrupted, then waited for: a dataset chunk still reads the mapped columns, which are
+        unmapped as soon as the dataset closes
+    */
+    protected void cancel(final Collection<Future<List<ShapeResult>>> pending, final ExecutorService executor) {
+        pending.forEach(future -> future.cancel(true));
+        executor.shutdownNow();
+        executor.close();
+    }
+
+    protected boolean readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected long write(final Future<List<ShapeResult>> future, long index, final Writer writer) throws IOException {
+        try {
+            for (var result : future.get()) {
+                writer.write(Long.toString(index++));
+                writer.write('|');
+                writer.write(result.toString());
+                writer.write('\n');
+            }
+            return index;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ProcessFileException();
+        } catch (ExecutionException ex) {
+            log.error("An error occurred while parsing a chunk of shapes", ex.getCause());
+            throw new ProcessFileException(ex.getCause().getMessage());
+        }
+    }
+
+    /*
+        Position right after the last complete record of the buffer, 0 when not even one record fits
+    */
+    protected int boundaryOf(final ByteBuffer buffer, final ShapeFormat format) {
+        return switch (format) {
+            case CSV -> {
+                for (var i = buffer.limit() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        yield i + 1;
+                    }
+                }
+                yield 0;
+            }
+            case BINARY -> {
+                var position = 0;
+                while (buffer.limit() - position >= BINARY_HEADER_BYTES) {
+                    var size = binaryRecordSizeOf(buffer, position);
+                    if (buffer.limit() - position < size) {
+                        break;
+                    }
+                    position += size;
+                }
+                yield position;
+            }
+            case DATASET -> throw new ProcessFileException("Shape datasets are not parsed");
+        };
+    }
+
+    protected int binaryRecordSizeOf(final ByteBuffer buffer, final int position) {
+        var vertexCount = buffer.getInt(position + Byte.BYTES);
+        if (vertexCount < 0 || vertexCount > (Integer.MAX_VALUE - BINARY_HEADER_BYTES) / BINARY_VERTEX_BYTES) {
+            throw new ProcessFileException("Corrupted binary shape record");
+        }
+        return BINARY_HEADER_BYTES + vertexCount * BINARY_VERTEX_BYTES;
+    }
+
+    /*
+        Unreadable records become null shapes, so they are reported as failed at their own position
+    */
+    protected List<Shape> parse(final ByteBuffer chunk, final ShapeFormat format) {
+        return switch (format) {
+            case CSV -> parseCsv(chunk);
+            case BINARY -> parseBinary(chunk);
+            case DATASET -> throw new ProcessFileException("Shape datasets are not parsed");
+        };
+    }
+
+    protected List<Shape> parseCsv(final ByteBuffer chunk) {
+        var text = StandardCharsets.UTF_8.decode(chunk);
+        var shapes = new ArrayList<Shape>();
+        var start = 0;
+
+        for (var i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                var line = text.subSequence(start, i).toString().strip();
+                start = i + 1;
+
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    shapes.add(parseCsvLine(line));
+                }
+            }
+        }
+
+        return shapes;
+    }
+
+    protected Shape parseCsvLine(final String line) {
+        var shape = shapeParser.parseCsvLine(line);
+        if (Objects.isNull(shape)) {
+            log.debug("Invalid shape line: {}", line);
+        }
+        return shape;
+    }
+
+    protected List<Shape> parseBinary(final ByteBuffer chunk) {
+        var shapes = new ArrayList<Shape>();
+        var tags = ShapeTag.values();
+
+        while (chunk.hasRemaining()) {
+            if (chunk.remaining() < BINARY_HEADER_BYTES || chunk.remaining() < binaryRecordSizeOf(chunk, chunk.position())) {
+                log.debug("Truncated binary shape record at the end of the file");
+                shapes.add(null);
+                break;
+            }
+
+            var tag = chunk.get();
+            var vertexCount = chunk.getInt();
+
+            var x = new double[vertexCount];
+            var y = new double[vertexCount];
+            for (var i = 0; i < vertexCount; i++) {
+                x[i] = chunk.getDouble();
+                y[i] = chunk.getDouble();
+            }
+
+            shapes.add(tag >= 0 && tag < tags.length ? shapeOf(tags[tag], x, y) : null);
+        }
+
+        return shapes;
+    }
+
+    /*
+        NaN and infinite coordinates have no BigDecimal form, the record fails on its own like a bad CSV line
+    */
+    protected Shape shapeOf(final ShapeTag tag, final double[] x, final double[] y) {
+        try {
+            return shapeParser.shapeOf(tag, x, y);
+        } catch (NumberFormatException ex) {
+            log.debug("Binary shape record with a non finite coordinate");
+            return null;
+        }
+    }
+
+}
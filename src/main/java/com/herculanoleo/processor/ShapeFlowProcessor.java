@@ -0,0 +1,259 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.models.shape.ShapeResult;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/*
+    Reactive stage classifying shapes in micro-batches.
+
+    Upstream demand is bounded to batchSize * maxBatchesInFlight and a batch is only requested again once its
+    results were accepted by the downstream buffer. A slow subscriber fills that buffer, submit blocks the
+    batch threads, upstream stops receiving demand and nothing queues up unbounded in between. No demand is sent
+    before the first downstream subscriber attaches, the publisher would drop the results meanwhile.
+*/
+@Log4j2
+public class ShapeFlowProcessor implements Flow.Processor<Shape, ShapeResult>, AutoCloseable {
+
+    protected static final int DEFAULT_BATCH_SIZE = 256;
+
+    protected static final int DEFAULT_MAX_BATCHES_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
+
+    protected static final Duration DEFAULT_LINGER = Duration.ofMillis(10);
+
+    protected final ProcessorShape processorShape;
+
+    protected final ExecutorService executor;
+
+    protected final ExecutorService deliveryExecutor;
+
+    protected final SubmissionPublisher<ShapeResult> publisher;
+
+    protected final ScheduledExecutorService lingerScheduler;
+
+    protected final int batchSize;
+
+    protected final int maxBatchesInFlight;
+
+    protected final boolean ordered;
+
+    protected final ReentrantLock batchLock = new ReentrantLock();
+
+    protected final ReentrantLock publishLock = new ReentrantLock();
+
+    protected final Map<Long, List<ShapeResult>> completedBatches = new HashMap<>();
+
+    protected final AtomicInteger batchesInFlight = new AtomicInteger();
+
+    protected final AtomicBoolean upstreamCompleted = new AtomicBoolean();
+
+    protected final AtomicBoolean demandStarted = new AtomicBoolean();
+
+    protected volatile Flow.Subscription subscription;
+
+    protected List<Shape> batch;
+
+    protected long nextBatchSequence;
+
+    protected long nextPublishSequence;
+
+    public ShapeFlowProcessor(final boolean ordered) {
+        this(ProcessorShape.shared, Executors.newVirtualThreadPerTaskExecutor(), DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCHES_IN_FLIGHT, ordered, DEFAULT_LINGER);
+    }
+
+    /*
+        The executor runs the batches only and may be bounded, it is shut down with the processor. Deliveries run on
+        virtual threads of their own: a batch blocked in submit waits for a delivery, which must never queue behind it
+    */
+    public ShapeFlowProcessor(final ProcessorShape processorShape,
+                              final ExecutorService executor,
+                              final int batchSize,
+                              final int maxBatchesInFlight,
+                              final boolean ordered,
+                              final Duration linger) {
+        if (batchSize <= 0 || maxBatchesInFlight <= 0) {
+            throw new IllegalArgumentException("The batch size and the batches in flight must be positive");
+        }
+
+        this.processorShape = processorShape;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+        this.ordered = ordered;
+        this.batch = new ArrayList<>(batchSize);
+        this.deliveryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shape-flow-delivery-", 0).factory());
+        this.publisher = new SubmissionPublisher<>(deliveryExecutor, batchSize * maxBatchesInFlight);
+        this.lingerScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("shape-flow-linger").factory());
+        this.lingerScheduler.scheduleWithFixedDelay(this::flush, linger.toNanos(), linger.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ShapeResult> subscriber) {
+        publisher.subscribe(subscriber);
+        startDemand();
+    }
+
+    public CompletableFuture<Void> consume(final Consumer<? super ShapeResult> consumer) {
+        var consumed = publisher.consume(consumer);
+        startDemand();
+        return consumed;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (Objects.nonNull(this.subscription)) {
+            subscription.cancel();
+            return;
+        }
+
+        this.subscription = subscription;
+        startDemand();
+    }
+
+    @Override
+    public void onNext(final Shape shape) {
+        List<Shape> full = null;
+        long sequence = 0;
+
+        batchLock.lock();
+        try {
+            batch.add(shape);
+            if (batch.size() >= batchSize) {
+                full = batch;
+                sequence = nextBatchSequence++;
+                batch = new ArrayList<>(batchSize);
+                batchesInFlight.incrementAndGet();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (Objects.nonNull(full)) {
+            dispatch(full, sequence);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        log.error("The shape source failed", throwable);
+        lingerScheduler.shutdownNow();
+        publisher.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        lingerScheduler.shutdownNow();
+        flush();
+        upstreamCompleted.set(true);
+        closeWhenDrained();
+    }
+
+    @Override
+    public void close() {
+        lingerScheduler.shutdownNow();
+        if (Objects.nonNull(subscription)) {
+            subscription.cancel();
+        }
+        publisher.close();
+        executor.close();
+        deliveryExecutor.close();
+    }
+
+    /*
+        Called by both sides, the first demand goes out once there is an upstream subscription and a downstream subscriber
+    */
+    protected void startDemand() {
+        var upstream = subscription;
+        if (Objects.nonNull(upstream) && publisher.hasSubscribers() && demandStarted.compareAndSet(false, true)) {
+            upstream.request((long) batchSize * maxBatchesInFlight);
+        }
+    }
+
+    /*
+        Sends the partial batch, so a slow source still sees its shapes classified within the linger time
+    */
+    protected void flush() {
+        List<Shape> partial = null;
+        long sequence = 0;
+
+        batchLock.lock();
+        try {
+            if (!batch.isEmpty()) {
+                partial = batch;
+                sequence = nextBatchSequence++;
+                batch = new ArrayList<>(batchSize);
+                batchesInFlight.incrementAndGet();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (Objects.nonNull(partial)) {
+            dispatch(partial, sequence);
+        }
+    }
+
+    /*
+        The batch was already counted in flight when it was taken, so completion cannot close the publisher before it
+    */
+    protected void dispatch(final List<Shape> shapes, final long sequence) {
+        try {
+            executor.execute(() -> {
+                try {
+                    publish(sequence, processorShape.resultsOf(shapes));
+                } catch (Throwable ex) {
+                    log.error("An error occurred while classifying a batch of shapes", ex);
+                    subscription.cancel();
+                    publisher.closeExceptionally(ex);
+                } finally {
+                    batchesInFlight.decrementAndGet();
+                    closeWhenDrained();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            batchesInFlight.decrementAndGet();
+            log.error("The shape batch was rejected, the processor is closed", ex);
+        }
+    }
+
+    /*
+        Upstream demand is given back only for results handed to the subscribers, never for results waiting their turn
+    */
+    protected void publish(final long sequence, final List<ShapeResult> results) {
+        if (!ordered) {
+            results.forEach(publisher::submit);
+            subscription.request(results.size());
+            return;
+        }
+
+        publishLock.lock();
+        try {
+            completedBatches.put(sequence, results);
+            for (var next = completedBatches.remove(nextPublishSequence); Objects.nonNull(next); next = completedBatches.remove(nextPublishSequence)) {
+                next.forEach(publisher::submit);
+                subscription.request(next.size());
+                nextPublishSequence++;
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    protected void closeWhenDrained() {
+        if (upstreamCompleted.get() && batchesInFlight.get() == 0 && !publisher.isClosed()) {
+            publisher.close();
+        }
+    }
+}
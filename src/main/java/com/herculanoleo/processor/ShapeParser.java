@@ -0,0 +1,57 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.*;
+
+import java.math.BigDecimal;
+
+/*
+    Text and columnar forms of shapes. Kept free of logging so short command line runs parse shapes
+    without starting log4j2.
+*/
+public class ShapeParser {
+
+    public static final ShapeParser shared = new ShapeParser();
+
+    /*
+        tag,x1,y1,x2,y2,... as in the CSV shapes file, null when the line is not a valid shape
+    */
+    public Shape parseCsvLine(final String line) {
+        try {
+            var columns = line.split(",");
+            var vertexCount = (columns.length - 1) / 2;
+
+            if (columns.length % 2 == 0) {
+                return null;
+            }
+
+            var x = new double[vertexCount];
+            var y = new double[vertexCount];
+            for (var i = 0; i < vertexCount; i++) {
+                x[i] = Double.parseDouble(columns[1 + i * 2].strip());
+                y[i] = Double.parseDouble(columns[2 + i * 2].strip());
+            }
+
+            return shapeOf(ShapeTag.valueOf(columns[0].strip().toUpperCase()), x, y);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /*
+        null when the vertex count does not fit the tag
+    */
+    public Shape shapeOf(final ShapeTag tag, final double[] x, final double[] y) {
+        return switch (tag) {
+            case CIRCLE -> x.length == 2 ? new CircleShape(pointOf(x, y, 0), pointOf(x, y, 1)) : null;
+            case RECTANGLE -> x.length == 4
+                    ? new RectangleShape(pointOf(x, y, 0), pointOf(x, y, 1), pointOf(x, y, 2), pointOf(x, y, 3))
+                    : null;
+            case TRIANGLE -> x.length == 3 ? new TriangleShape(pointOf(x, y, 0), pointOf(x, y, 1), pointOf(x, y, 2)) : null;
+            case POLYGON -> new PolygonShape(x, y);
+        };
+    }
+
+    protected CartesianPoint pointOf(final double[] x, final double[] y, final int index) {
+        return new CartesianPoint(BigDecimal.valueOf(x[index]), BigDecimal.valueOf(y[index]));
+    }
+}
@@ -0,0 +1,197 @@
+package com.herculanoleo.server;
+
+import com.herculanoleo.processor.ProcessorFile;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+    Local hashing daemon, one virtual thread per exchange.
+
+    GET /hash?path=<path> hashes a file or every file under a directory, POST /hash takes one path per line.
+    The answer has one line per file in the result file format: success|SHA256:hash|path|size|duration.
+    Bound to the loopback address by default since it reads any path the process can. Loopback alone lets every
+    local user and any web page the user opens reach it, so each request must carry the token of a file only the
+    user can read, as "Authorization: Bearer <token>", and a Host naming the loopback, against DNS rebinding.
+*/
+@Log4j2
+public class FileHashServer implements AutoCloseable {
+
+    public static final String HASH_PATH = "/hash";
+
+    protected static final int MAX_BODY_BYTES = 1048576;
+
+    protected static final int BACKLOG = 1024;
+
+    protected static final int TOKEN_BYTES = 32;
+
+    protected static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+
+    protected final HttpServer server;
+
+    protected final ExecutorService executor;
+
+    protected final ProcessorFile processorFile;
+
+    protected final byte[] authorization;
+
+    protected final Set<String> allowedHosts;
+
+    public FileHashServer(final InetSocketAddress address, final ProcessorFile processorFile, final String token) throws IOException {
+        this.processorFile = processorFile;
+        this.authorization = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        var port = server.getAddress().getPort();
+        this.allowedHosts = Set.of("localhost:" + port, "127.0.0.1:" + port, "[::1]:" + port);
+        this.server.setExecutor(executor);
+        this.server.createContext(HASH_PATH, this::handle);
+    }
+
+    public FileHashServer start() {
+        server.start();
+        log.info("File hash server listening on {}", address());
+        return this;
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /*
+        Reads the token of the file, or creates the file readable by its owner only with a new random token
+    */
+    public static String tokenOf(final Path file) throws IOException {
+        var posix = file.getFileSystem().supportedFileAttributeViews().contains("posix");
+
+        if (Files.exists(file)) {
+            if (posix && !OWNER_ONLY.containsAll(Files.getPosixFilePermissions(file))) {
+                throw new IOException("The token file " + file + " must be readable by its owner only");
+            }
+            return Files.readString(file).strip();
+        }
+
+        var bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        var token = HexFormat.of().formatHex(bytes);
+
+        if (Objects.nonNull(file.getParent())) {
+            Files.createDirectories(file.getParent());
+        }
+        if (posix) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } else {
+            Files.createFile(file);
+        }
+        Files.writeString(file, token);
+        return token;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+        log.info("File hash server stopped");
+    }
+
+    protected void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!allowedHosts.contains(String.valueOf(exchange.getRequestHeaders().getFirst("Host")).toLowerCase())) {
+                send(exchange, 403, "Only loopback hosts are accepted\n");
+                return;
+            }
+            if (!isAuthorized(exchange)) {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Bearer");
+                send(exchange, 401, "A valid token is required\n");
+                return;
+            }
+
+            try {
+                var paths = switch (exchange.getRequestMethod().toUpperCase()) {
+                    case "GET" -> queryPathOf(exchange);
+                    case "POST" -> bodyPathsOf(exchange);
+                    default -> null;
+                };
+
+                if (Objects.isNull(paths)) {
+                    exchange.getResponseHeaders().add("Allow", "GET, POST");
+                    send(exchange, 405, "Only GET and POST are supported\n");
+                    return;
+                }
+
+                var response = new StringBuilder();
+                for (var path : paths) {
+                    for (var result : processorFile.hashOf(path)) {
+                        response.append(result).append('\n');
+                    }
+                }
+                send(exchange, 200, response.toString());
+            } catch (IllegalArgumentException ex) {
+                send(exchange, 400, "Invalid path: " + ex.getMessage() + "\n");
+            }
+        }
+    }
+
+    /*
+        Constant time, so the token cannot be guessed a byte at a time
+    */
+    protected boolean isAuthorized(final HttpExchange exchange) {
+        var header = exchange.getRequestHeaders().getFirst("Authorization");
+        return Objects.nonNull(header) && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+        InvalidPathException is an IllegalArgumentException, both answer as bad requests
+    */
+    protected List<Path> queryPathOf(final HttpExchange exchange) {
+        var query = exchange.getRequestURI().getRawQuery();
+        if (Objects.nonNull(query)) {
+            for (var parameter : query.split("&")) {
+                if (parameter.startsWith("path=")) {
+                    return List.of(Path.of(URLDecoder.decode(parameter.substring("path=".length()), StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        throw new IllegalArgumentException("the path parameter is required");
+    }
+
+    protected List<Path> bodyPathsOf(final HttpExchange exchange) throws IOException {
+        var bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("too many paths");
+        }
+
+        var paths = new ArrayList<Path>();
+        for (var line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                paths.add(Path.of(line.strip()));
+            }
+        }
+        return paths;
+    }
+
+    protected void send(final HttpExchange exchange, final int status, final String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
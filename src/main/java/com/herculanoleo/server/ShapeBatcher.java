@@ -0,0 +1,152 @@
+package com.herculanoleo.server;
+
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.models.shape.ShapeDetails;
+import com.herculanoleo.processor.ProcessorShape;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Coalesces the shapes of concurrent requests into batches.
+
+    A single dispatcher takes a worker permit before draining the queue, so while every worker is busy the
+    requests pile up and the next batch grows with the load. Idle servers answer a lone request right away,
+    busy ones pay one handoff per batch instead of one per request.
+*/
+@Log4j2
+public class ShapeBatcher implements AutoCloseable {
+
+    protected static final int DEFAULT_MAX_BATCH_SHAPES = 1024;
+
+    protected final ProcessorShape processorShape;
+
+    protected final int maxBatchShapes;
+
+    protected final Semaphore workerPermits;
+
+    protected final ExecutorService workers;
+
+    protected final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    protected final Thread dispatcher;
+
+    /*
+        Held to check running and enqueue, and to stop running, so nothing is queued after close drained the queue
+    */
+    protected final ReentrantLock lifecycleLock = new ReentrantLock();
+
+    protected volatile boolean running = true;
+
+    public ShapeBatcher(final ProcessorShape processorShape) {
+        this(processorShape, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_BATCH_SHAPES);
+    }
+
+    public ShapeBatcher(final ProcessorShape processorShape, final int workerCount, final int maxBatchShapes) {
+        if (workerCount <= 0 || maxBatchShapes <= 0) {
+            throw new IllegalArgumentException("The workers and the batch size must be positive");
+        }
+
+        this.processorShape = processorShape;
+        this.maxBatchShapes = maxBatchShapes;
+        this.workerPermits = new Semaphore(workerCount);
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("shape-batch-", 0).daemon().factory());
+        this.dispatcher = Thread.ofPlatform().name("shape-batch-dispatcher").daemon().start(this::dispatch);
+    }
+
+    /*
+        Details in the order of the shapes, null shapes are reported as failures
+    */
+    public CompletableFuture<List<ShapeDetails>> submit(final List<Shape> shapes) {
+        var pending = new Pending(shapes, new CompletableFuture<>());
+
+        lifecycleLock.lock();
+        try {
+            if (running) {
+                queue.add(pending);
+                return pending.future();
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+
+        pending.future().completeExceptionally(new RejectedExecutionException("The shape batcher is closed"));
+        return pending.future();
+    }
+
+    @Override
+    public void close() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+        } finally {
+            lifecycleLock.unlock();
+        }
+
+        dispatcher.interrupt();
+        workers.close();
+
+        var rejected = new ArrayList<Pending>();
+        queue.drainTo(rejected);
+        rejected.forEach(pending -> pending.future().completeExceptionally(new RejectedExecutionException("The shape batcher is closed")));
+    }
+
+    protected void dispatch() {
+        var batch = new ArrayList<Pending>();
+
+        while (running) {
+            try {
+                workerPermits.acquire();
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                workerPermits.release();
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            var shapeCount = batch.getFirst().shapes().size();
+            for (var next = queue.peek(); Objects.nonNull(next) && shapeCount + next.shapes().size() <= maxBatchShapes; next = queue.peek()) {
+                batch.add(queue.poll());
+                shapeCount += next.shapes().size();
+            }
+
+            var taken = List.copyOf(batch);
+            batch.clear();
+
+            try {
+                workers.execute(() -> {
+                    try {
+                        process(taken);
+                    } finally {
+                        workerPermits.release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                workerPermits.release();
+                taken.forEach(pending -> pending.future().completeExceptionally(ex));
+            }
+        }
+    }
+
+    protected void process(final List<Pending> batch) {
+        for (var pending : batch) {
+            try {
+                var details = new ArrayList<ShapeDetails>(pending.shapes().size());
+                for (var shape : pending.shapes()) {
+                    details.add(Objects.isNull(shape) ? ShapeDetails.failure() : processorShape.detailsOf(shape));
+                }
+                pending.future().complete(details);
+            } catch (Throwable ex) {
+                log.error("An error occurred while processing a batch of shapes", ex);
+                pending.future().completeExceptionally(ex);
+            }
+        }
+    }
+
+    protected record Pending(List<Shape> shapes, CompletableFuture<List<ShapeDetails>> future) {
+    }
+}
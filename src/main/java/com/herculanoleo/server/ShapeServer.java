@@ -0,0 +1,138 @@
+package com.herculanoleo.server;
+
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.processor.ProcessorShape;
+import com.herculanoleo.processor.ShapeParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+
+/*
+    Geometry over HTTP, one virtual thread per exchange.
+
+    POST /shapes takes one shape per line in the CSV shapes file format (tag,x1,y1,x2,y2,...) and answers one line
+    per shape in the same order: index|success|type|area|distances|angles, lists separated by ';'.
+    Blank and # lines are skipped like in the shapes file, unreadable lines answer as failures.
+*/
+@Log4j2
+public class ShapeServer implements AutoCloseable {
+
+    public static final String SHAPES_PATH = "/shapes";
+
+    protected static final int MAX_BODY_BYTES = 16 * 1048576;
+
+    protected static final int BACKLOG = 4096;
+
+    protected final HttpServer server;
+
+    protected final ExecutorService executor;
+
+    protected final ShapeBatcher batcher;
+
+    protected final ShapeParser shapeParser;
+
+    public ShapeServer(final InetSocketAddress address) throws IOException {
+        this(address, new ShapeBatcher(ProcessorShape.shared), ShapeParser.shared);
+    }
+
+    public ShapeServer(final InetSocketAddress address, final ShapeBatcher batcher, final ShapeParser shapeParser) throws IOException {
+        this.batcher = batcher;
+        this.shapeParser = shapeParser;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.setExecutor(executor);
+        this.server.createContext(SHAPES_PATH, this::handle);
+    }
+
+    public ShapeServer start() {
+        server.start();
+        log.info("Shape server listening on {}", address());
+        return this;
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        batcher.close();
+        executor.close();
+        log.info("Shape server stopped");
+    }
+
+    protected void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Allow", "POST");
+                send(exchange, 405, "Only POST is supported\n");
+                return;
+            }
+
+            var body = readBody(exchange.getRequestBody());
+            if (Objects.isNull(body)) {
+                send(exchange, 413, "The payload is larger than " + MAX_BODY_BYTES + " bytes\n");
+                return;
+            }
+
+            try {
+                var details = batcher.submit(parse(body)).get();
+
+                var response = new StringBuilder(details.size() * 64);
+                for (var i = 0; i < details.size(); i++) {
+                    response.append(i).append('|').append(details.get(i)).append('\n');
+                }
+                send(exchange, 200, response.toString());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                send(exchange, 503, "The server is stopping\n");
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RejectedExecutionException) {
+                    send(exchange, 503, "The server is stopping\n");
+                    return;
+                }
+                log.error("An error occurred while processing a shapes request", ex.getCause());
+                send(exchange, 500, "The shapes could not be processed\n");
+            }
+        }
+    }
+
+    protected List<Shape> parse(final String body) {
+        var shapes = new ArrayList<Shape>();
+        for (var line : body.split("\n")) {
+            var stripped = line.strip();
+            if (!stripped.isEmpty() && !stripped.startsWith("#")) {
+                shapes.add(shapeParser.parseCsvLine(stripped));
+            }
+        }
+        return shapes;
+    }
+
+    /*
+        null when the body goes over MAX_BODY_BYTES
+    */
+    protected String readBody(final InputStream input) throws IOException {
+        var bytes = input.readNBytes(MAX_BODY_BYTES + 1);
+        return bytes.length > MAX_BODY_BYTES ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected void send(final HttpExchange exchange, final int status, final String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
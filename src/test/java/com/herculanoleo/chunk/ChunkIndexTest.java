@@ -0,0 +1,77 @@
+package com.herculanoleo.chunk;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkIndexTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void referencesPerFileVersionTest() {
+        var index = ChunkIndex.open(directory.resolve("chunks.idx"));
+        var first = digestOf(1);
+        var second = digestOf(2);
+
+        assertTrue(index.add(first, 100));
+        assertTrue(index.add(second, 50));
+        assertTrue(index.addVersion("/a.bin", List.of(first, second)));
+        assertTrue(index.addVersion("/b.bin", List.of(first, second)));
+
+        for (var scan = 0; scan < 3; scan++) {
+            assertFalse(index.add(first, 100));
+            assertFalse(index.addVersion("/a.bin", List.of(first, second)));
+        }
+        assertEquals(300, index.referencedBytes());
+        assertEquals(150, index.storedBytes());
+
+        assertTrue(index.addVersion("/a.bin", List.of(second)));
+        assertEquals(350, index.referencedBytes());
+        assertEquals(3, index.versionCount());
+
+        index.save();
+        var reopened = ChunkIndex.open(directory.resolve("chunks.idx"));
+        assertFalse(reopened.addVersion("/b.bin", List.of(first, second)));
+        assertEquals(350, reopened.referencedBytes());
+        assertEquals(2, reopened.sharedChunkCount());
+    }
+
+    @Test
+    public void unreferencedChunksLeftOutTest() {
+        var index = ChunkIndex.inMemory();
+        index.add(digestOf(1), 100);
+
+        assertEquals(0, index.chunkCount());
+        assertEquals(0, index.storedBytes());
+    }
+
+    @Test
+    public void failedSaveDeletesItsTemporaryFileTest() throws Exception {
+        var path = Files.createDirectory(directory.resolve("chunks.idx"));
+        Files.writeString(path.resolve("occupied"), "not empty");
+
+        var failing = new ChunkIndex(path, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        failing.add(digestOf(1), 100);
+        failing.addVersion("/a.bin", List.of(digestOf(1)));
+
+        assertThrows(ProcessFileException.class, failing::save);
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    private byte[] digestOf(final int value) {
+        var digest = new byte[ChunkIndex.DIGEST_BYTES];
+        digest[0] = (byte) value;
+        return digest;
+    }
+}
@@ -0,0 +1,69 @@
+package com.herculanoleo.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastCdcChunkerTest {
+
+    private final FastCdcChunker chunker = new FastCdcChunker(1024, 4096, 16384);
+
+    @Test
+    public void chunkSizesTest() {
+        var bytes = randomBytes(1048576);
+        var lengths = lengthsOf(bytes);
+
+        assertEquals(bytes.length, lengths.stream().mapToInt(Integer::intValue).sum());
+        for (var i = 0; i < lengths.size() - 1; i++) {
+            assertTrue(lengths.get(i) > 1024 && lengths.get(i) <= 16384);
+        }
+
+        var average = (double) bytes.length / lengths.size();
+        assertTrue(average > 2048 && average < 8192, "average chunk size " + average);
+    }
+
+    @Test
+    public void insertedByteKeepsLaterBoundariesTest() {
+        var bytes = randomBytes(1048576);
+        var shifted = new byte[bytes.length + 1];
+        System.arraycopy(bytes, 0, shifted, 0, 1000);
+        shifted[1000] = 42;
+        System.arraycopy(bytes, 1000, shifted, 1001, bytes.length - 1000);
+
+        var original = boundariesOf(lengthsOf(bytes), 0);
+        var moved = boundariesOf(lengthsOf(shifted), -1);
+
+        original.retainAll(moved);
+        assertTrue(original.size() >= boundariesOf(lengthsOf(bytes), 0).size() - 2);
+    }
+
+    private List<Integer> lengthsOf(final byte[] bytes) {
+        var lengths = new ArrayList<Integer>();
+        for (var offset = 0; offset < bytes.length; ) {
+            var length = chunker.cut(bytes, offset, bytes.length - offset);
+            lengths.add(length);
+            offset += length;
+        }
+        return lengths;
+    }
+
+    private List<Integer> boundariesOf(final List<Integer> lengths, final int shift) {
+        var boundaries = new ArrayList<Integer>();
+        var boundary = shift;
+        for (var length : lengths) {
+            boundary += length;
+            boundaries.add(boundary);
+        }
+        return boundaries;
+    }
+
+    private byte[] randomBytes(final int size) {
+        var bytes = new byte[size];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,176 @@
+package com.herculanoleo.cluster;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.processor.ProcessorFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashCoordinatorTest {
+
+    @TempDir
+    private Path directory;
+
+    @TempDir
+    private Path resultDestination;
+
+    @Test
+    public void processFolderTest() throws Exception {
+        createTree(40);
+
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(address -> new HashWorker(ProcessorFile.shared, address)), 3);
+        var resultFile = coordinator.processFolder(directory, resultDestination);
+
+        assertResults(resultFile, 40);
+    }
+
+    @Test
+    public void deadWorkerShardReassignedTest() throws Exception {
+        createTree(40);
+
+        var launched = new AtomicInteger();
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(address -> launched.getAndIncrement() == 0
+                ? new FailingHashWorker(address)
+                : new HashWorker(ProcessorFile.shared, address)), 2, 8);
+        var resultFile = coordinator.processFolder(directory, resultDestination);
+
+        assertResults(resultFile, 40);
+    }
+
+    @Test
+    public void silentWorkerShardReassignedTest() throws Exception {
+        createTree(20);
+
+        var launched = new AtomicInteger();
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(address -> launched.getAndIncrement() == 0
+                ? new HangingHashWorker(address)
+                : new HashWorker(ProcessorFile.shared, address)), 1, 4, Duration.ofMillis(500));
+        var resultFile = coordinator.processFolder(directory, resultDestination);
+
+        assertResults(resultFile, 20);
+        assertEquals(2, launched.get());
+    }
+
+    @Test
+    public void connectingWorkerNotReplacedTest() throws Exception {
+        createTree(20);
+
+        var launched = new AtomicInteger();
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(address -> launched.getAndIncrement() == 0
+                ? new FailingHashWorker(address)
+                : new SlowStartingHashWorker(address)), 2, 4);
+        var resultFile = coordinator.processFolder(directory, resultDestination);
+
+        assertResults(resultFile, 20);
+        assertEquals(2, launched.get());
+    }
+
+    @Test
+    public void escapedPathsTest() throws Exception {
+        createTree(4);
+        Files.writeString(directory.resolve("line\nbreak.txt"), "new line");
+        Files.writeString(directory.resolve("carriage\rreturn.txt"), "carriage return");
+        Files.writeString(directory.resolve("back\\slash\\n.txt"), "backslash");
+
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(address -> new HashWorker(ProcessorFile.shared, address)), 2);
+        var resultFile = coordinator.processFolder(directory, resultDestination);
+
+        var results = Files.readString(resultFile);
+        for (var result : new ProcessorFile().hashOf(directory)) {
+            assertTrue(results.contains("true|SHA256:" + result.hash() + "|" + result.file().getAbsolutePath() + "|"), result.file().getName());
+        }
+    }
+
+    @Test
+    public void everyWorkerDeadTest() throws Exception {
+        createTree(4);
+
+        var coordinator = new HashCoordinator(WorkerLauncher.threads(FailingHashWorker::new), 2);
+
+        assertThrows(ProcessFileException.class, () -> coordinator.processFolder(directory, resultDestination));
+    }
+
+    private void createTree(final int fileCount) throws Exception {
+        for (var i = 0; i < fileCount; i++) {
+            var folder = Files.createDirectories(directory.resolve("folder-" + i % 5));
+            Files.writeString(folder.resolve("file-" + i + ".txt"), "content " + i);
+        }
+    }
+
+    private void assertResults(final Path resultFile, final int fileCount) throws Exception {
+        Map<String, List<String>> hashesByPath = Files.readAllLines(resultFile).stream()
+                .map(line -> line.split("\\|"))
+                .collect(Collectors.groupingBy(parts -> parts[2], Collectors.mapping(parts -> parts[1], Collectors.toList())));
+
+        assertEquals(fileCount, hashesByPath.size());
+        for (var result : new ProcessorFile().hashOf(directory)) {
+            assertEquals(List.of("SHA256:" + result.hash()), hashesByPath.get(result.file().getAbsolutePath()));
+        }
+    }
+
+    /*
+        Dies in the middle of its first shard
+    */
+    private static class FailingHashWorker extends HashWorker {
+
+        private FailingHashWorker(final InetSocketAddress coordinator) {
+            super(ProcessorFile.shared, coordinator);
+        }
+
+        @Override
+        protected List<String> hashShard(final int index, final List<Path> paths) {
+            throw new IllegalStateException("Worker killed");
+        }
+    }
+
+    /*
+        Never answers its first shard
+    */
+    private static class HangingHashWorker extends HashWorker {
+
+        private HangingHashWorker(final InetSocketAddress coordinator) {
+            super(ProcessorFile.shared, coordinator);
+        }
+
+        @Override
+        protected List<String> hashShard(final int index, final List<Path> paths) {
+            try {
+                Thread.sleep(Duration.ofMinutes(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Worker stopped");
+        }
+    }
+
+    /*
+        Connects once the first worker had time to die
+    */
+    private static class SlowStartingHashWorker extends HashWorker {
+
+        private SlowStartingHashWorker(final InetSocketAddress coordinator) {
+            super(ProcessorFile.shared, coordinator);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Thread.sleep(Duration.ofSeconds(1));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            super.run();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.herculanoleo.dataset;
+
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.shape.PolygonShape;
+import com.herculanoleo.models.shape.ShapeTag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShapeDatasetTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void splitLargeSegmentsTest() throws IOException {
+        var source = directory.resolve("shapes.shpd");
+        var maxSegmentBytes = ShapeDatasetLayout.segmentBytes(3, 16);
+
+        try (var writer = new ShapeDatasetWriter(FileChannel.open(source, StandardOpenOption.CREATE, StandardOpenOption.WRITE), 1024, maxSegmentBytes)) {
+            for (var i = 0; i < 10; i++) {
+                writer.write(new PolygonShape(new double[]{i, i + 4, i + 2, i + 4, i}, new double[]{0, 0, 2, 4, 4}));
+            }
+            assertThrows(ProcessFileException.class, () -> writer.write(new PolygonShape(new double[40], new double[40])));
+        }
+
+        try (var dataset = ShapeDataset.open(source)) {
+            assertEquals(10, dataset.size());
+            assertEquals(4, dataset.segments.size());
+            for (var i = 0; i < 10; i++) {
+                var shape = dataset.get(i);
+                assertEquals(ShapeTag.POLYGON, shape.tag());
+                assertEquals(5, shape.vertexCount());
+                assertEquals(i, shape.x(0));
+            }
+        }
+    }
+
+    @Test
+    public void closeReleasesTheDatasetTest() throws IOException {
+        var source = directory.resolve("shapes.shpd");
+
+        try (var writer = ShapeDatasetWriter.append(source)) {
+            writer.write(new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4}));
+        }
+
+        var dataset = ShapeDataset.open(source);
+        assertEquals(1, dataset.size());
+        dataset.close();
+
+        assertThrows(IllegalStateException.class, () -> dataset.get(0));
+        Files.delete(source);
+        assertFalse(Files.exists(source));
+    }
+}
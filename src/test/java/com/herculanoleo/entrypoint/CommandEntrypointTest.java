@@ -0,0 +1,84 @@
+package com.herculanoleo.entrypoint;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandEntrypointTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private final CommandEntrypoint commandEntrypoint = new CommandEntrypoint(
+            new PrintStream(out, true, StandardCharsets.UTF_8),
+            new PrintStream(err, true, StandardCharsets.UTF_8)
+    );
+
+    @Test
+    public void shapeTest() {
+        var exitCode = commandEntrypoint.run(new String[]{"shape", "triangle,0,0,4,0,0,3", "circle,0,0"});
+
+        assertEquals(CommandEntrypoint.EXIT_FAILURE, exitCode);
+        assertEquals("""
+                0|true|SCALENE_TRIANGLE|6|4.0;5.0;3.0|90.00;36.87;53.13
+                1|false|null|null||
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void jsonJobTest() throws Exception {
+        var file = Files.writeString(directory.resolve("a b\\c.txt"), "content");
+        var job = Files.writeString(directory.resolve("shapes.job"), String.format("""
+                # job
+                shape rectangle,0,0,2,0,2,2,0,2
+
+                hash "%s"
+                """, file));
+
+        var exitCode = commandEntrypoint.run(new String[]{"--output", "json", "--job", job.toString()});
+
+        var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(CommandEntrypoint.EXIT_SUCCESS, exitCode);
+        assertEquals("{\"index\":0,\"success\":true,\"type\":\"SQUARE\",\"area\":4.00,\"distances\":[2.0,2.0,2.0,2.0],\"angles\":[90.00,90.00,90.00,90.00]}", lines.get(0));
+        assertTrue(lines.get(1).startsWith("{\"success\":true,\"hash\":\"" + DigestUtils.sha256Hex(DigestUtils.sha256Hex("content")) + "\",\"error\":null,\"path\":"), lines.get(1));
+        assertTrue(lines.get(1).contains("a b\\\\c.txt"), lines.get(1));
+    }
+
+    @Test
+    public void failingJobLinesTest() throws Exception {
+        var corrupted = Files.writeString(directory.resolve("corrupted.shpd"), "not a dataset");
+        var job = Files.writeString(directory.resolve("failing.job"), String.format("""
+                worker abc
+                shapes-file "%s" "%s"
+                shape rectangle,0,0,2,0,2,2,0,2
+                """, corrupted, directory));
+
+        assertEquals(CommandEntrypoint.EXIT_USAGE, commandEntrypoint.run(new String[]{"--job", job.toString()}));
+        assertEquals("0|true|SQUARE|4.00|2.0;2.0;2.0;2.0|90.00;90.00;90.00;90.00\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("worker takes the coordinator port"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("shapes-file failed"));
+
+        assertEquals(CommandEntrypoint.EXIT_FAILURE, commandEntrypoint.run(new String[]{"shapes-file", corrupted.toString(), directory.toString()}));
+    }
+
+    @Test
+    public void usageTest() {
+        assertEquals(CommandEntrypoint.EXIT_USAGE, commandEntrypoint.run(new String[]{"unknown"}));
+        assertEquals(CommandEntrypoint.EXIT_USAGE, commandEntrypoint.run(new String[]{"--output", "xml", "shape", "circle,0,0,0,1"}));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage:"));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+package com.herculanoleo.index;
+
+import com.herculanoleo.models.shape.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ShapeIndexTest {
+
+    private final List<Shape> shapes = gridOf(40);
+
+    private final ShapeIndex shapeIndex = ShapeIndex.of(shapes);
+
+    @Test
+    public void searchTest() {
+        var result = shapeIndex.search(new BoundingBox(10.5, 10.5, 12.5, 11.5));
+
+        var expectedResult = Set.of(
+                squareOf(10, 10), squareOf(11, 10), squareOf(12, 10),
+                squareOf(10, 11), squareOf(11, 11), squareOf(12, 11)
+        );
+
+        assertEquals(expectedResult, new HashSet<>(result));
+    }
+
+    @Test
+    public void containingTest() {
+        var point = new CartesianPoint(BigDecimal.valueOf(20.5), BigDecimal.valueOf(7.5));
+
+        var expectedResult = List.of(squareOf(20, 7));
+
+        assertEquals(expectedResult, shapeIndex.containing(point));
+    }
+
+    @Test
+    public void containingCircleTest() {
+        var circle = new CircleShape(
+                new CartesianPoint(BigDecimal.valueOf(100), BigDecimal.valueOf(100)),
+                new CartesianPoint(BigDecimal.valueOf(103), BigDecimal.valueOf(104))
+        );
+        var index = ShapeIndex.of(List.of(circle, squareOf(0, 0)));
+
+        assertEquals(List.of(circle), index.containing(new CartesianPoint(BigDecimal.valueOf(96), BigDecimal.valueOf(103))));
+        assertEquals(List.of(), index.containing(new CartesianPoint(BigDecimal.valueOf(96), BigDecimal.valueOf(96))));
+    }
+
+    @Test
+    public void nearestTest() {
+        var point = new CartesianPoint(BigDecimal.valueOf(-3), BigDecimal.valueOf(0.5));
+
+        var expectedResult = Set.of(squareOf(0, 0), squareOf(0, 1), squareOf(0, -1));
+
+        var result = shapeIndex.nearest(point, 3);
+
+        assertEquals(squareOf(0, 0), result.getFirst());
+        assertEquals(expectedResult, new HashSet<>(result));
+    }
+
+    private static List<Shape> gridOf(final int size) {
+        var grid = new ArrayList<Shape>(size * size);
+        for (var x = 0; x < size; x++) {
+            for (var y = -1; y < size; y++) {
+                grid.add(squareOf(x, y));
+            }
+        }
+        return grid;
+    }
+
+    private static PolygonShape squareOf(final double x, final double y) {
+        return new PolygonShape(new double[]{x, x + 1, x + 1, x}, new double[]{y, y, y + 1, y + 1});
+    }
+
+}
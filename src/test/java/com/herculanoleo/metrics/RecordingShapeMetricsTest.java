@@ -0,0 +1,91 @@
+package com.herculanoleo.metrics;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.metrics.ShapeOperation;
+import com.herculanoleo.models.shape.*;
+import com.herculanoleo.processor.ProcessorShape;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordingShapeMetricsTest {
+
+    @Test
+    public void snapshotTest() {
+        var metrics = new RecordingShapeMetrics();
+        var processorShape = new ProcessorShape(metrics);
+
+        var square = new RectangleShape(pointOf(0, 0), pointOf(2, 0), pointOf(2, 2), pointOf(0, 2));
+        var triangle = new TriangleShape(pointOf(0, 0), pointOf(8, 0), pointOf(5, 9));
+        var collinear = new TriangleShape(pointOf(0, 0), pointOf(1, 1), pointOf(2, 2));
+
+        processorShape.resultOf(square);
+        processorShape.resultOf(square);
+        processorShape.resultOf(triangle);
+        processorShape.resultOf(collinear);
+        processorShape.anglesOf(triangle);
+        assertThrows(InvalidShapeException.class, () -> processorShape.typeOf(null));
+
+        var snapshot = metrics.snapshot();
+
+        assertEquals(2, snapshot.typeCounts().get(ShapeType.SQUARE));
+        assertEquals(1, snapshot.typeCounts().get(ShapeType.SCALENE_TRIANGLE));
+        assertEquals(3, snapshot.classifiedCount());
+        assertEquals(2, snapshot.invalidShapeCount());
+        assertEquals(2, snapshot.latencyOf(ShapeOperation.TYPE, ShapeTag.RECTANGLE).count());
+        assertEquals(2, snapshot.latencyOf(ShapeOperation.TYPE, ShapeTag.TRIANGLE).count());
+        assertEquals(1, snapshot.latencyOf(ShapeOperation.AREA, ShapeTag.TRIANGLE).count());
+        assertEquals(1, snapshot.latencyOf(ShapeOperation.ANGLES, ShapeTag.TRIANGLE).count());
+        assertEquals(0, snapshot.latencyOf(ShapeOperation.AREA, ShapeTag.CIRCLE).count());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().classifiedCount());
+    }
+
+    @Test
+    public void histogramPercentileTest() {
+        var histogram = new LatencyHistogram();
+        var random = new Random(42);
+        var values = new long[100_000];
+        for (var i = 0; i < values.length; i++) {
+            values[i] = 1_000 + random.nextInt(1_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (var percentile : new double[]{50, 90, 99, 99.9}) {
+            var expected = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            var actual = histogram.valueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected / 32 + 1, String.format("p%s: %s != %s", percentile, actual, expected));
+        }
+
+        assertEquals(values[values.length - 1], histogram.snapshot().maxNanos());
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        var metrics = new RecordingShapeMetrics().register("test");
+        new ProcessorShape(metrics).typeOf(new CircleShape(pointOf(0, 0), pointOf(1, 0)));
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var objectName = ObjectName.getInstance("com.herculanoleo:type=ShapeMetrics,name=\"test\"");
+
+        assertEquals(1L, server.getAttribute(objectName, "ClassifiedCount"));
+        assertInstanceOf(TabularData.class, server.getAttribute(objectName, "TypeCounts"));
+        assertEquals(Map.of(), ShapeMetrics.disabled.snapshot().typeCounts());
+
+        server.unregisterMBean(objectName);
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+}
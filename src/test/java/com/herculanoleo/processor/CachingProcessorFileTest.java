@@ -0,0 +1,72 @@
+package com.herculanoleo.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingProcessorFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void invalidatedByModificationTest() throws Exception {
+        var processorFile = new CachingProcessorFile(16);
+        var file = Files.writeString(directory.resolve("a.txt"), "first");
+
+        var first = processorFile.processFile(file.toFile());
+        var cached = processorFile.processFile(file.toFile());
+
+        assertTrue(first.success());
+        assertEquals(first.hash(), cached.hash());
+        assertEquals(1, processorFile.stats().hitCount());
+
+        Files.writeString(file, "second");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        var modified = processorFile.processFile(file.toFile());
+
+        assertNotEquals(first.hash(), modified.hash());
+        assertEquals(2, processorFile.stats().missCount());
+        assertEquals(1, processorFile.stats().size());
+    }
+
+    @Test
+    public void sharedInFlightComputationTest() throws Exception {
+        var processorFile = new CachingProcessorFile(16);
+        var file = Files.write(directory.resolve("b.bin"), new byte[8 * 1048576]);
+
+        var results = new ArrayList<Future<String>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 32; i++) {
+                results.add(executor.submit((Callable<String>) () -> processorFile.processFile(file.toFile()).hash()));
+            }
+        }
+
+        var expected = new ProcessorFile().processFile(file.toFile()).hash();
+        for (var result : results) {
+            assertEquals(expected, result.get());
+        }
+        assertEquals(1, processorFile.stats().missCount());
+        assertEquals(31, processorFile.stats().hitCount());
+    }
+
+    @Test
+    public void failuresNotCachedTest() {
+        var processorFile = new CachingProcessorFile(16);
+        var missing = directory.resolve("missing.txt").toFile();
+
+        assertFalse(processorFile.processFile(missing).success());
+        assertEquals(0, processorFile.stats().size());
+    }
+}
@@ -0,0 +1,89 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.CartesianPoint;
+import com.herculanoleo.models.shape.RectangleShape;
+import com.herculanoleo.models.shape.ShapeType;
+import com.herculanoleo.models.shape.TriangleShape;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingProcessorShapeTest {
+
+    @Test
+    public void typeOfTranslatedAndRotatedTest() {
+        var processorShape = new CachingProcessorShape(128);
+
+        var rect = new RectangleShape(pointOf(0, 0), pointOf(4, 0), pointOf(4, 2), pointOf(0, 2));
+        var translated = new RectangleShape(pointOf(10, 5), pointOf(14, 5), pointOf(14, 7), pointOf(10, 7));
+        var rotatedAndReversed = new RectangleShape(pointOf(4, 2), pointOf(4, 0), pointOf(0, 0), pointOf(0, 2));
+
+        assertEquals(ShapeType.RECTANGLE, processorShape.typeOf(rect));
+        assertEquals(ShapeType.RECTANGLE, processorShape.typeOf(translated));
+        assertEquals(ShapeType.RECTANGLE, processorShape.typeOf(rotatedAndReversed));
+
+        var stats = processorShape.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    public void anglesOfRotatedTest() {
+        var processorShape = new CachingProcessorShape(128);
+
+        var triangle = new TriangleShape(pointOf(0, 0), pointOf(8, 0), pointOf(5, 9));
+        var rotated = new TriangleShape(pointOf(8, 0), pointOf(5, 9), pointOf(0, 0));
+        var reversed = new TriangleShape(pointOf(5, 9), pointOf(8, 0), pointOf(0, 0));
+
+        processorShape.anglesOf(triangle);
+
+        assertEquals(ProcessorShape.shared.anglesOf(rotated), processorShape.anglesOf(rotated));
+        assertEquals(ProcessorShape.shared.anglesOf(reversed), processorShape.anglesOf(reversed));
+        assertEquals(2, processorShape.stats().hitCount());
+    }
+
+    @Test
+    public void hitsCountTheValueServedTest() {
+        var processorShape = new CachingProcessorShape(128);
+
+        var triangle = new TriangleShape(pointOf(0, 0), pointOf(8, 0), pointOf(5, 9));
+
+        processorShape.areaOf(triangle);
+        assertEquals(0, processorShape.stats().hitCount());
+        assertEquals(1, processorShape.stats().missCount());
+        assertEquals(1, processorShape.frequencyOf(processorShape.keyOf(triangle)));
+
+        processorShape.typeOf(triangle);
+        assertEquals(1, processorShape.stats().hitCount());
+
+        processorShape.anglesOf(triangle);
+        assertEquals(1, processorShape.stats().hitCount());
+        assertEquals(2, processorShape.stats().missCount());
+        assertEquals(3, processorShape.frequencyOf(processorShape.keyOf(triangle)));
+    }
+
+    @Test
+    public void evictionTest() {
+        var processorShape = new CachingProcessorShape(16);
+
+        for (var i = 0; i < 200; i++) {
+            var triangle = new TriangleShape(pointOf(0, 0), pointOf(8 + i, 0), pointOf(5, 9 + i));
+            processorShape.typeOf(triangle);
+            processorShape.typeOf(triangle);
+        }
+
+        var stats = processorShape.stats();
+        assertTrue(stats.size() <= 16);
+        assertTrue(stats.evictionCount() > 0);
+        assertEquals(400, stats.hitCount() + stats.missCount());
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+
+}
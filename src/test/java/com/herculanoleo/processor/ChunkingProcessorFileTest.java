@@ -0,0 +1,136 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.chunk.ChunkIndex;
+import com.herculanoleo.chunk.FastCdcChunker;
+import com.herculanoleo.models.file.HashJobOptions;
+import com.herculanoleo.models.file.ProcessFileResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkingProcessorFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @TempDir
+    private Path resultDestination;
+
+    private final FastCdcChunker chunker = new FastCdcChunker(4096, 16384, 65536);
+
+    @Test
+    public void sharedChunksAcrossFilesTest() throws Exception {
+        var content = randomBytes(4 * 1048576);
+        var edited = new byte[content.length + 3];
+        System.arraycopy(content, 0, edited, 0, 100000);
+        System.arraycopy(new byte[]{1, 2, 3}, 0, edited, 100000, 3);
+        System.arraycopy(content, 100000, edited, 100003, content.length - 100000);
+
+        var original = Files.write(directory.resolve("original.bin"), content);
+        var copy = Files.write(directory.resolve("copy.bin"), content);
+        var version = Files.write(directory.resolve("version.bin"), edited);
+
+        var processorFile = new ChunkingProcessorFile(chunker, ChunkIndex.inMemory());
+        var originalResult = processorFile.processFile(original.toFile());
+        var copyResult = processorFile.processFile(copy.toFile());
+        var versionResult = processorFile.processFile(version.toFile());
+
+        assertTrue(originalResult.success());
+        assertEquals(originalResult.hash(), copyResult.hash());
+        assertNotEquals(originalResult.hash(), versionResult.hash());
+
+        var report = processorFile.report();
+        assertEquals(3, report.files());
+        assertEquals(3L * content.length + 3, report.bytes());
+        assertTrue(report.newChunks() <= report.chunks() / 3 + 4, report.toString());
+        assertTrue(report.runSavings() > 0.6, report.toString());
+        assertTrue(report.indexChunks() - report.indexSharedChunks() <= 2, report.toString());
+    }
+
+    @Test
+    public void persistentIndexTest() throws Exception {
+        Files.write(directory.resolve("a.bin"), randomBytes(1048576));
+        var indexFile = resultDestination.resolve("chunks.idx");
+
+        var first = new ChunkingProcessorFile(chunker, ChunkIndex.open(indexFile));
+        var firstReport = first.reportOf(run(first));
+        assertEquals(firstReport.chunks(), firstReport.newChunks());
+
+        var second = new ChunkingProcessorFile(chunker, ChunkIndex.open(indexFile));
+        var secondReport = second.reportOf(run(second));
+        assertEquals(0, secondReport.newChunks());
+        assertEquals(firstReport.indexChunks(), secondReport.indexChunks());
+        assertEquals(firstReport.indexReferencedBytes(), secondReport.indexReferencedBytes());
+        assertEquals(firstReport.indexSavings(), secondReport.indexSavings());
+
+        var againReport = second.reportOf(run(second));
+        assertEquals(1, againReport.files());
+        assertEquals(secondReport.chunks(), againReport.chunks());
+        assertEquals(secondReport.bytes(), againReport.bytes());
+        assertEquals(0, second.report().files());
+
+        try (var results = Files.list(resultDestination)) {
+            assertTrue(results.anyMatch(path -> path.getFileName().toString().startsWith("dedupe-")));
+        }
+    }
+
+    @Test
+    public void interruptedWhileChunkingFailsTheFileTest() throws Exception {
+        var file = Files.write(directory.resolve("a.bin"), randomBytes(262144));
+        var chunkIndex = ChunkIndex.inMemory();
+        var hashing = new CountDownLatch(1);
+
+        var processorFile = new ChunkingProcessorFile(chunker, chunkIndex) {
+            private final FairShareQuota.Lane singleLane = new FairShareQuota(1).lane(HashJobOptions.DEFAULT_PRIORITY, 1);
+
+            @Override
+            protected FairShareQuota.Lane hashLane() {
+                return singleLane;
+            }
+
+            @Override
+            protected byte[] hashChunk(final byte[] chunk, final DedupeCounters fileCounters) {
+                hashing.countDown();
+                var until = System.nanoTime() + Duration.ofMillis(200).toNanos();
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                return super.hashChunk(chunk, fileCounters);
+            }
+        };
+
+        var result = new AtomicReference<ProcessFileResult>();
+        var hashingThread = new Thread(() -> result.set(processorFile.processFile(file.toFile())));
+        hashingThread.start();
+        hashing.await();
+        while (hashingThread.getState() != Thread.State.WAITING && hashingThread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        hashingThread.interrupt();
+        hashingThread.join();
+
+        assertFalse(result.get().success());
+        assertEquals(0, chunkIndex.versionCount());
+        assertEquals(0, processorFile.report().files());
+    }
+
+    private HashJob run(final ChunkingProcessorFile processorFile) {
+        var job = processorFile.submit(directory.toFile(), resultDestination.toFile(), HashJobOptions.defaults());
+        job.await();
+        return job;
+    }
+
+    private byte[] randomBytes(final int size) {
+        var bytes = new byte[size];
+        new Random(11).nextBytes(bytes);
+        return bytes;
+    }
+}
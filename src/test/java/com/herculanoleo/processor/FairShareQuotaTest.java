@@ -0,0 +1,88 @@
+package com.herculanoleo.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FairShareQuotaTest {
+
+    @Test
+    public void sharedByWeightTest() throws Exception {
+        var quota = new FairShareQuota(4);
+        var light = quota.lane(1, 8);
+        var heavy = quota.lane(3, 8);
+
+        for (var i = 0; i < 4; i++) {
+            light.acquire();
+        }
+
+        var waiters = new ArrayList<Thread>();
+        for (var i = 0; i < 4; i++) {
+            waiters.add(Thread.ofVirtual().start(() -> acquireQuietly(light)));
+            waiters.add(Thread.ofVirtual().start(() -> acquireQuietly(heavy)));
+        }
+        awaitWaiting(quota, 8);
+
+        for (var i = 0; i < 4; i++) {
+            light.release();
+        }
+        awaitInUse(light, heavy, 4);
+
+        assertEquals(1, light.inUse());
+        assertEquals(3, heavy.inUse());
+
+        waiters.forEach(Thread::interrupt);
+    }
+
+    @Test
+    public void laneLimitTest() throws Exception {
+        var quota = new FairShareQuota(8);
+        var lane = quota.lane(1, 2);
+        lane.acquire();
+        lane.acquire();
+
+        var acquired = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            acquireQuietly(lane);
+            acquired.countDown();
+        });
+
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+        lane.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(2, lane.inUse());
+    }
+
+    private void acquireQuietly(final FairShareQuota.Lane lane) {
+        try {
+            lane.acquire();
+        } catch (InterruptedException ignored) {
+            /* test cleanup */
+        }
+    }
+
+    private void awaitWaiting(final FairShareQuota quota, final int waiting) throws InterruptedException {
+        while (true) {
+            quota.lock.lock();
+            try {
+                if (quota.lanes.stream().mapToInt(lane -> lane.waiting).sum() == waiting) {
+                    return;
+                }
+            } finally {
+                quota.lock.unlock();
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitInUse(final FairShareQuota.Lane first, final FairShareQuota.Lane second, final int inUse) throws InterruptedException {
+        while (first.inUse() + second.inUse() < inUse) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.ProcessFileResult;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileResultTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void pathTableTest() throws Exception {
+        Files.createDirectories(directory.resolve("a/b"));
+        Files.writeString(directory.resolve("root.txt"), "root");
+        Files.writeString(directory.resolve("a/a.txt"), "a");
+        Files.writeString(directory.resolve("a/b/b.txt"), "b");
+
+        var table = PathTable.list(directory.toFile());
+        assertEquals(3, table.size());
+        assertEquals(new File(directory.toFile(), "root.txt"), table.fileOf(0));
+
+        var listed = new HashSet<File>();
+        for (var id = 0; id < table.size(); id++) {
+            listed.add(table.fileOf(id));
+        }
+        assertTrue(listed.contains(directory.resolve("a/a.txt").toFile()));
+        assertTrue(listed.contains(directory.resolve("a/b/b.txt").toFile()));
+
+        var relative = PathTable.of(List.of(new File("relative.txt"), new File("x/ação.txt"), new File("x/文件.txt")));
+        assertEquals(new File("relative.txt"), relative.fileOf(0));
+        assertEquals(new File("x/ação.txt"), relative.fileOf(1));
+        assertEquals(new File("x/文件.txt"), relative.fileOf(2));
+    }
+
+    @Test
+    public void resultLinesTest() throws Exception {
+        var expected = new HashMap<String, String>();
+        for (var i = 0; i < 20; i++) {
+            var content = "file " + i;
+            var file = Files.writeString(directory.resolve("f" + i + ".txt"), content);
+            expected.put(file.toFile().getAbsolutePath(), DigestUtils.sha256Hex(DigestUtils.sha256Hex(content.getBytes(StandardCharsets.UTF_8))));
+        }
+
+        var paths = PathTable.list(directory.toFile());
+        var results = new ProcessorFile().runFiles(paths);
+        var writer = new StringWriter();
+        results.writeTo(writer);
+
+        var lines = writer.toString().split("\n");
+        assertEquals(20, lines.length);
+        for (var id = 0; id < lines.length; id++) {
+            var result = results.get(id);
+            assertEquals(result.toString(), lines[id]);
+            assertEquals(expected.get(result.file().getAbsolutePath()), result.hash());
+            assertEquals(result.file().length(), result.size());
+        }
+    }
+
+    @Test
+    public void failureAndPendingTest() {
+        var paths = PathTable.of(List.of(new File("missing.txt"), new File("never.txt")));
+        var results = new FileResultTable(paths);
+        results.record(0, ProcessFileResult.failure(paths.fileOf(0), "missing.txt (No such file)", 3));
+
+        assertEquals(new ProcessFileResult(false, new File("missing.txt"), null, "missing.txt (No such file)", 0, 3), results.get(0));
+        assertNull(results.get(1));
+        assertEquals(1, results.toList().size());
+        assertEquals("false|SHA256:missing.txt (No such file)|" + new File("missing.txt").getAbsolutePath() + "|0|3", results.toList().getFirst().toString());
+    }
+}
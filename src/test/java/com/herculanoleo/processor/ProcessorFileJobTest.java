@@ -0,0 +1,137 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.file.HashJobOptions;
+import com.herculanoleo.models.file.HashJobStatus;
+import com.herculanoleo.models.file.ProcessFileResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessorFileJobTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void concurrentJobsTest() throws Exception {
+        var first = createFolder("first", 30);
+        var second = createFolder("second", 20);
+        var results = Files.createDirectories(directory.resolve("results"));
+        var processorFile = new ProcessorFile(4, 4);
+
+        var firstJob = processorFile.submit(first.toFile(), results.toFile(), new HashJobOptions(1, 2, 2));
+        var secondJob = processorFile.submit(second.toFile(), results.toFile(), new HashJobOptions(3, 4, 4));
+
+        var firstResult = firstJob.await();
+        var secondResult = secondJob.await();
+
+        assertNotEquals(firstJob.id(), secondJob.id());
+        assertEquals(30, Files.readAllLines(firstResult).size());
+        assertEquals(20, Files.readAllLines(secondResult).size());
+
+        var progress = firstJob.progress();
+        assertEquals(HashJobStatus.COMPLETED, progress.status());
+        assertEquals(30, progress.totalFiles());
+        assertEquals(30, progress.processedFiles());
+        assertEquals(0, progress.failedFiles());
+        assertEquals(1.0, progress.fraction());
+        assertTrue(processorFile.jobs().isEmpty());
+    }
+
+    @Test
+    public void cancelTest() throws Exception {
+        var folder = createFolder("slow", 10);
+        var results = Files.createDirectories(directory.resolve("results"));
+        var started = new CountDownLatch(1);
+
+        var processorFile = new ProcessorFile() {
+            @Override
+            protected ProcessFileResult processFile(final File file) {
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException ex) {
+                    return ProcessFileResult.failure(file, "Interrupted", 0);
+                }
+                return super.processFile(file);
+            }
+        };
+
+        var job = processorFile.submit(folder.toFile(), results.toFile(), new HashJobOptions(1, 1, 1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(HashJobStatus.RUNNING, job.status());
+
+        assertTrue(job.cancel());
+
+        assertThrows(CancellationException.class, job::await);
+        assertEquals(HashJobStatus.CANCELLED, job.status());
+        assertTrue(job.progress().processedFiles() < 10);
+        try (var files = Files.list(results)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void cancelWhileWritingTest() throws Exception {
+        var folder = createFolder("written", 5);
+        var results = Files.createDirectories(directory.resolve("results"));
+        var cancelled = new AtomicBoolean(true);
+
+        var processorFile = new ProcessorFile() {
+            @Override
+            protected void jobCompleted(final HashJob job) {
+                cancelled.set(job.cancel());
+            }
+        };
+
+        var job = processorFile.submit(folder.toFile(), results.toFile(), HashJobOptions.defaults());
+        var resultFile = job.await();
+
+        assertFalse(cancelled.get());
+        assertEquals(HashJobStatus.COMPLETED, job.status());
+        assertEquals(5, Files.readAllLines(resultFile).size());
+        assertFalse(job.cancel());
+    }
+
+    @Test
+    public void anonymousJobTest() throws Exception {
+        var folder = createFolder("anonymous", 3);
+        var listed = new AtomicReference<Collection<HashJob>>(List.of());
+        var anonymous = new AtomicReference<HashJob>();
+
+        var processorFile = new ProcessorFile() {
+            @Override
+            protected ProcessFileResult processFile(final File file) {
+                listed.set(jobs());
+                anonymous.set(currentJob.get());
+                return super.processFile(file);
+            }
+        };
+
+        assertEquals(3, processorFile.hashOf(folder).size());
+        assertTrue(listed.get().isEmpty());
+
+        anonymous.get().cancel();
+        assertFalse(Thread.interrupted());
+    }
+
+    private Path createFolder(final String name, final int fileCount) throws Exception {
+        var folder = Files.createDirectories(directory.resolve(name).resolve("nested"));
+        for (var i = 0; i < fileCount; i++) {
+            Files.writeString(folder.resolve("file-" + i + ".txt"), name + " " + i);
+        }
+        return folder.getParent();
+    }
+}
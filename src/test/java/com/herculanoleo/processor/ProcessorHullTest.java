@@ -0,0 +1,121 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.exception.InvalidShapeException;
+import com.herculanoleo.models.shape.CartesianPoint;
+import com.herculanoleo.models.shape.PolygonShape;
+import com.herculanoleo.models.shape.ShapeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessorHullTest {
+
+    private final ProcessorHull processorHull = new ProcessorHull();
+
+    private final ProcessorShape processorShape = new ProcessorShape();
+
+    @Test
+    public void convexHullOfTest() {
+        var points = new ArrayList<CartesianPoint>();
+        points.add(pointOf(0, 0));
+        points.add(pointOf(4, 0));
+        points.add(pointOf(4, 4));
+        points.add(pointOf(0, 4));
+        points.add(pointOf(2, 0));
+        points.add(pointOf(2, 2));
+        points.add(pointOf(1, 3));
+
+        var hull = processorHull.convexHullOf(points);
+
+        assertEquals(4, hull.vertexCount());
+        assertEquals(0, new BigDecimal("16").compareTo(processorShape.areaOf(hull)));
+        assertTrue(processorShape.signedAreaOf(hull.x(), hull.y()) > 0);
+
+        assertThrows(InvalidShapeException.class, () -> processorHull.convexHullOf(List.of(pointOf(0, 0), pointOf(1, 1), pointOf(2, 2))));
+    }
+
+    @Test
+    public void convexHullOfLargeSetTest() {
+        var random = new Random(42);
+        var size = 300_000;
+        var x = new double[size];
+        var y = new double[size];
+        for (var i = 0; i < size; i++) {
+            x[i] = random.nextGaussian() * 100;
+            y[i] = random.nextGaussian() * 100;
+        }
+
+        var hull = processorHull.convexHullOf(x, y);
+
+        assertTrue(processorShape.isConvex(hull.x(), hull.y()));
+        for (var i = 0; i < size; i++) {
+            for (var edge = 0; edge < hull.vertexCount(); edge++) {
+                var next = (edge + 1) % hull.vertexCount();
+                var cross = (hull.x()[next] - hull.x()[edge]) * (y[i] - hull.y()[edge])
+                        - (hull.y()[next] - hull.y()[edge]) * (x[i] - hull.x()[edge]);
+                assertTrue(cross >= -1e-9, "point outside of the hull");
+            }
+        }
+    }
+
+    @Test
+    public void minimumBoundingRectangleOfTest() {
+        var random = new Random(7);
+        var angle = Math.toRadians(30);
+        var x = new double[1000];
+        var y = new double[1000];
+        for (var i = 0; i < x.length; i++) {
+            var u = i < 4 ? (i % 2) * 10.0 : random.nextDouble() * 10;
+            var v = i < 4 ? (i / 2) * 2.0 : random.nextDouble() * 2;
+            x[i] = u * Math.cos(angle) - v * Math.sin(angle) + 5;
+            y[i] = u * Math.sin(angle) + v * Math.cos(angle) - 3;
+        }
+
+        var rectangle = processorHull.minimumBoundingRectangleOf(x, y);
+
+        assertEquals(20.0, processorShape.approximateAreaOf(rectangle), 1e-6);
+        assertEquals(bruteForceAreaOf(processorHull.convexHullOf(x, y)), processorShape.approximateAreaOf(rectangle), 1e-6);
+    }
+
+    @Test
+    public void minimumBoundingRectangleIsAValidShapeTest() {
+        var rectangle = processorHull.minimumBoundingRectangleOf(List.of(pointOf(0, 0), pointOf(3, 4), pointOf(-1, 7), pointOf(-4, 3)));
+
+        assertEquals(4, rectangle.vertexCount());
+        assertEquals(ShapeType.CONVEX_POLYGON, processorShape.typeOf(rectangle));
+        assertEquals(0, new BigDecimal("25").compareTo(processorShape.areaOf(rectangle)));
+        assertTrue(processorShape.signedAreaOf(rectangle.x(), rectangle.y()) > 0);
+    }
+
+    private double bruteForceAreaOf(final PolygonShape hull) {
+        var best = Double.POSITIVE_INFINITY;
+        var size = hull.vertexCount();
+        for (var edge = 0; edge < size; edge++) {
+            var next = (edge + 1) % size;
+            var length = Math.hypot(hull.x()[next] - hull.x()[edge], hull.y()[next] - hull.y()[edge]);
+            var ux = (hull.x()[next] - hull.x()[edge]) / length;
+            var uy = (hull.y()[next] - hull.y()[edge]) / length;
+            double minU = Double.POSITIVE_INFINITY, maxU = Double.NEGATIVE_INFINITY;
+            double minV = Double.POSITIVE_INFINITY, maxV = Double.NEGATIVE_INFINITY;
+            for (var i = 0; i < size; i++) {
+                var u = hull.x()[i] * ux + hull.y()[i] * uy;
+                var v = -hull.x()[i] * uy + hull.y()[i] * ux;
+                minU = Math.min(minU, u);
+                maxU = Math.max(maxU, u);
+                minV = Math.min(minV, v);
+                maxV = Math.max(maxV, v);
+            }
+            best = Math.min(best, (maxU - minU) * (maxV - minV));
+        }
+        return best;
+    }
+
+    private CartesianPoint pointOf(final double x, final double y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+}
@@ -0,0 +1,77 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.metrics.RecordingShapeMetrics;
+import com.herculanoleo.models.shape.*;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Allocation counterpart of ShapeBenchmark, the hot path must not allocate even before the JIT kicks in
+*/
+public class ProcessorShapeAllocationTest {
+
+    private static final int ITERATIONS = 100_000;
+
+    private static final long MAX_BYTES_PER_OPERATION = 0;
+
+    private final ProcessorShape processorShape = new ProcessorShape();
+
+    private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void typeOfRectangleAllocationTest() {
+        var shape = new RectangleShape(pointOf(0, 0), pointOf(4, 0), pointOf(4, 2), pointOf(0, 2));
+        assertAllocationFree(shape, ShapeType.RECTANGLE);
+    }
+
+    @Test
+    public void typeOfTriangleAllocationTest() {
+        var shape = new TriangleShape(pointOf(0, 0), pointOf(8, 0), pointOf(5, 9));
+        assertAllocationFree(shape, ShapeType.SCALENE_TRIANGLE);
+    }
+
+    @Test
+    public void typeOfPolygonAllocationTest() {
+        var shape = new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4});
+        assertAllocationFree(shape, ShapeType.CONCAVE_POLYGON);
+    }
+
+    @Test
+    public void typeOfWithMetricsAllocationTest() {
+        var shape = new RectangleShape(pointOf(0, 0), pointOf(4, 0), pointOf(4, 2), pointOf(0, 2));
+        assertAllocationFree(new ProcessorShape(new RecordingShapeMetrics()), shape, ShapeType.RECTANGLE);
+    }
+
+    private void assertAllocationFree(final Shape shape, final ShapeType expectedType) {
+        assertAllocationFree(processorShape, shape, expectedType);
+    }
+
+    private void assertAllocationFree(final ProcessorShape processorShape, final Shape shape, final ShapeType expectedType) {
+        for (var i = 0; i < ITERATIONS; i++) {
+            assertEquals(expectedType, processorShape.typeOf(shape));
+        }
+
+        var before = threadMXBean.getCurrentThreadAllocatedBytes();
+        var matches = 0;
+        for (var i = 0; i < ITERATIONS; i++) {
+            if (processorShape.typeOf(shape) == expectedType) {
+                matches++;
+            }
+        }
+        var allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(ITERATIONS, matches);
+        assertTrue(allocated / ITERATIONS <= MAX_BYTES_PER_OPERATION, String.format("%s bytes allocated", allocated));
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+
+}
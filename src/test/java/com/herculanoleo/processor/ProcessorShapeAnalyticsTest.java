@@ -0,0 +1,59 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProcessorShapeAnalyticsTest {
+
+    private final ProcessorShapeAnalytics processorShapeAnalytics = new ProcessorShapeAnalytics(new ProcessorShape());
+
+    @Test
+    public void summaryOfTest() {
+        var squares = IntStream.rangeClosed(1, 10_000).mapToObj(side -> (Shape) new RectangleShape(
+                pointOf(0, 0), pointOf(side, 0), pointOf(side, side), pointOf(0, side)
+        ));
+        var triangles = IntStream.rangeClosed(1, 100).mapToObj(side -> (Shape) new TriangleShape(
+                pointOf(0, 0), pointOf(side * 2L, 0), pointOf(side, side)
+        ));
+        var invalid = Stream.of((Shape) new TriangleShape(pointOf(0, 0), pointOf(1, 0), pointOf(2, 0)));
+
+        var summary = processorShapeAnalytics.summaryOf(Stream.of(squares, triangles, invalid).flatMap(s -> s));
+
+        assertEquals(10_000, summary.countOf(ShapeType.SQUARE));
+        assertEquals(100, summary.countOf(ShapeType.ISOSCELES_TRIANGLE));
+        assertEquals(0, summary.countOf(ShapeType.CIRCLE));
+        assertEquals(10_100, summary.validCount());
+        assertEquals(1, summary.invalidCount());
+
+        var squaresArea = 10_000.0 * 10_001 * 20_001 / 6;
+        var trianglesArea = 100.0 * 101 * 201 / 6;
+        assertEquals(squaresArea + trianglesArea, summary.totalArea(), 1e-3);
+
+        assertEquals(4_950.0 * 4_950, summary.areaQuantile(0.5), 4_950.0 * 4_950 * 0.02);
+        assertEquals(4.0 * 4_950, summary.perimeterQuantile(0.5), 4.0 * 4_950 * 0.02);
+        assertEquals(4.0 * 10_000, summary.perimeterQuantile(1), 1e-9);
+    }
+
+    @Test
+    public void summaryOfOverflowingShapesTest() {
+        var overflowing = new PolygonShape(new double[]{-1e308, 1e308, 1e308, -1e308}, new double[]{-1e308, -1e308, 1e308, 1e308});
+        var square = new RectangleShape(pointOf(0, 0), pointOf(2, 0), pointOf(2, 2), pointOf(0, 2));
+
+        var summary = processorShapeAnalytics.summaryOf(Stream.of(overflowing, square, overflowing).parallel());
+
+        assertEquals(1, summary.validCount());
+        assertEquals(2, summary.invalidCount());
+        assertEquals(4, summary.totalArea(), 1e-9);
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+
+}
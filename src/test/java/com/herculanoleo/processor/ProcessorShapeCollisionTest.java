@@ -0,0 +1,67 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProcessorShapeCollisionTest {
+
+    private final ProcessorShape processorShape = new ProcessorShape();
+
+    private final ProcessorShapeCollision processorShapeCollision = new ProcessorShapeCollision(processorShape);
+
+    @Test
+    public void overlapsOfTest() {
+        var shapes = List.<Shape>of(
+                new CircleShape(pointOf(0, 0), pointOf(2, 0)),
+                new RectangleShape(pointOf(1, 1), pointOf(5, 1), pointOf(5, 3), pointOf(1, 3)),
+                new TriangleShape(pointOf(10, 10), pointOf(14, 10), pointOf(12, 13)),
+                new CircleShape(pointOf(4, 6), pointOf(4, 5)),
+                new TriangleShape(pointOf(6, 3), pointOf(8, 3), pointOf(7, 5)),
+                new PolygonShape(new double[]{11, 13, 13, 11}, new double[]{10.5, 10.5, 11, 11})
+        );
+
+        var expectedResult = Set.of(new ShapePair(0, 1), new ShapePair(2, 5));
+
+        assertEquals(expectedResult, new HashSet<>(processorShapeCollision.overlapsOf(shapes)));
+    }
+
+    @Test
+    public void overlapsOfMatchesAllPairsTest() {
+        var random = new Random(42);
+        var shapes = new ArrayList<Shape>();
+        for (var i = 0; i < 300; i++) {
+            var x = random.nextInt(200);
+            var y = random.nextInt(200);
+            shapes.add(switch (i % 3) {
+                case 0 -> new CircleShape(pointOf(x, y), pointOf(x + 1 + random.nextInt(5), y));
+                case 1 -> new TriangleShape(pointOf(x, y), pointOf(x + 1 + random.nextInt(8), y), pointOf(x, y + 1 + random.nextInt(8)));
+                default -> new RectangleShape(pointOf(x, y), pointOf(x + 6, y), pointOf(x + 6, y + 3), pointOf(x, y + 3));
+            });
+        }
+
+        var expectedResult = new HashSet<ShapePair>();
+        for (var i = 0; i < shapes.size(); i++) {
+            for (var j = i + 1; j < shapes.size(); j++) {
+                if (processorShape.intersects(shapes.get(i), shapes.get(j))) {
+                    expectedResult.add(new ShapePair(i, j));
+                }
+            }
+        }
+
+        assertEquals(expectedResult, new HashSet<>(processorShapeCollision.overlapsOf(shapes)));
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.dataset.ShapeDataset;
+import com.herculanoleo.dataset.ShapeDatasetWriter;
+import com.herculanoleo.models.exception.ProcessFileException;
+import com.herculanoleo.models.shape.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessorShapeFileTest {
+
+    private final ProcessorShapeFile processorShapeFile = new ProcessorShapeFile(ProcessorShape.shared, 16);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void processCsvFileTest() throws IOException {
+        var source = directory.resolve("shapes.csv");
+        Files.writeString(source, """
+                # type,x1,y1,...
+                CIRCLE,0,0,4,0
+                RECTANGLE,0,0,4,0,4,4,0,4
+                TRIANGLE,0,0,8,0,5,9
+                TRIANGLE,0,0,abc
+                POLYGON,0,0,4,0,2,2,4,4,0,4""");
+
+        var result = processorShapeFile.processFile(source, ShapeFormat.CSV, directory);
+
+        var expectedResult = List.of(
+                "0|true|CIRCLE|50.3",
+                "1|true|SQUARE|16.0",
+                "2|true|SCALENE_TRIANGLE|36.1",
+                "3|false|null|null",
+                "4|true|CONCAVE_POLYGON|12.0"
+        );
+
+        assertEquals(expectedResult, Files.readAllLines(result));
+    }
+
+    @Test
+    public void processBinaryFileTest() throws IOException {
+        var source = directory.resolve("shapes.bin");
+
+        try (var output = new DataOutputStream(Files.newOutputStream(source))) {
+            output.writeByte(ShapeTag.RECTANGLE.ordinal());
+            output.writeInt(4);
+            for (var value : new double[]{0, 0, 4, 0, 4, 2, 0, 2}) {
+                output.writeDouble(value);
+            }
+            output.writeByte(ShapeTag.TRIANGLE.ordinal());
+            output.writeInt(2);
+            for (var value : new double[]{0, 0, 4, 0}) {
+                output.writeDouble(value);
+            }
+            output.writeByte(ShapeTag.TRIANGLE.ordinal());
+            output.writeInt(3);
+            for (var value : new double[]{0, 0, 4, Double.NaN, 2, 2}) {
+                output.writeDouble(value);
+            }
+            output.writeByte(ShapeTag.RECTANGLE.ordinal());
+            output.writeInt(4);
+            for (var value : new double[]{0, 0, 4, 0, 4, 4, 0, 4}) {
+                output.writeDouble(value);
+            }
+        }
+
+        var result = processorShapeFile.processFile(source, ShapeFormat.BINARY, directory);
+
+        var expectedResult = List.of(
+                "0|true|RECTANGLE|8.00",
+                "1|false|null|null",
+                "2|false|null|null",
+                "3|true|SQUARE|16.0"
+        );
+
+        assertEquals(expectedResult, Files.readAllLines(result));
+    }
+
+    @Test
+    public void failingChunkStopsTheOthersTest() throws IOException {
+        var source = directory.resolve("shapes.csv");
+        Files.writeString(source, "CIRCLE,0,0,4,0\n".repeat(64));
+
+        var chunks = new AtomicInteger();
+        var failing = new ProcessorShapeFile(ProcessorShape.shared, 16) {
+            @Override
+            protected List<Shape> parse(final ByteBuffer chunk, final ShapeFormat format) {
+                if (chunks.getAndIncrement() == 0) {
+                    throw new IllegalStateException("Unreadable chunk");
+                }
+                try {
+                    Thread.sleep(Duration.ofSeconds(30));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of();
+            }
+        };
+
+        var startAt = System.nanoTime();
+        assertThrows(ProcessFileException.class, () -> failing.processFile(source, ShapeFormat.CSV, directory));
+        assertTrue(Duration.ofNanos(System.nanoTime() - startAt).toSeconds() < 10);
+    }
+
+    @Test
+    public void cancelledDatasetWaitsForRunningChunksTest() throws Exception {
+        var source = directory.resolve("shapes.shpd");
+        try (var writer = ShapeDatasetWriter.append(source)) {
+            writer.write(new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4}));
+        }
+
+        var started = new CountDownLatch(1);
+        var readAfterInterrupt = new AtomicBoolean();
+        var slow = new ProcessorShapeFile(ProcessorShape.shared, 16) {
+            @Override
+            protected List<ShapeResult> resultsOf(final ShapeDataset dataset, final long fromIndex, final long toIndex) {
+                started.countDown();
+                var until = System.nanoTime() + Duration.ofMillis(500).toNanos();
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                readAfterInterrupt.set(dataset.get(0).vertexCount() == 5);
+                return List.of();
+            }
+        };
+
+        var failure = new AtomicReference<Throwable>();
+        var processing = new Thread(() -> {
+            try {
+                slow.processFile(source, ShapeFormat.DATASET, directory);
+            } catch (Throwable ex) {
+                failure.set(ex);
+            }
+        });
+        processing.start();
+        started.await();
+        processing.interrupt();
+        processing.join();
+
+        assertInstanceOf(ProcessFileException.class, failure.get());
+        assertTrue(readAfterInterrupt.get());
+    }
+
+    @Test
+    public void processDatasetFileTest() throws IOException {
+        var source = directory.resolve("shapes.shpd");
+
+        try (var writer = ShapeDatasetWriter.append(source, 2)) {
+            writer.write(new RectangleShape(
+                    new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                    new CartesianPoint(BigDecimal.valueOf(4), BigDecimal.valueOf(0)),
+                    new CartesianPoint(BigDecimal.valueOf(4), BigDecimal.valueOf(2)),
+                    new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(2))
+            ));
+            writer.write(new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4}));
+            writer.write(new TriangleShape(
+                    new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                    new CartesianPoint(BigDecimal.valueOf(8), BigDecimal.valueOf(0)),
+                    new CartesianPoint(BigDecimal.valueOf(5), BigDecimal.valueOf(9))
+            ));
+        }
+
+        try (var writer = ShapeDatasetWriter.append(source)) {
+            writer.write(new CircleShape(
+                    new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                    new CartesianPoint(BigDecimal.valueOf(4), BigDecimal.valueOf(0))
+            ));
+        }
+
+        var dataset = ShapeDataset.open(source);
+
+        assertEquals(4, dataset.size());
+        assertEquals(ShapeTag.POLYGON, dataset.get(1).tag());
+        assertEquals(5, dataset.get(1).vertexCount());
+
+        var result = processorShapeFile.processFile(source, ProcessorShapeFile.formatOf(source), directory);
+
+        var expectedResult = List.of(
+                "0|true|RECTANGLE|8.00",
+                "1|true|CONCAVE_POLYGON|12.0",
+                "2|true|SCALENE_TRIANGLE|36.1",
+                "3|true|CIRCLE|50.3"
+        );
+
+        assertEquals(expectedResult, Files.readAllLines(result));
+    }
+
+}
@@ -129,12 +129,118 @@ public class ProcessorShapeTest {
         assertEquals(expectedValue, result);
     }
 
+    @Test
+    public void typeOfNearlyIsoscelesDecimalTriangleTest() {
+        var shape = new TriangleShape(
+                new CartesianPoint(BigDecimal.valueOf(0.5), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(1000.5), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(503.5), BigDecimal.valueOf(870.4))
+        );
+
+        var expectedValue = ShapeType.SCALENE_TRIANGLE;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedValue, result);
+    }
+
+    @Test
+    public void typeOfIntegerAndDecimalTrianglesAgreeTest() {
+        var integer = new TriangleShape(pointOf("0", "0"), pointOf("1000", "0"), pointOf("500", "866"));
+        var decimal = new TriangleShape(pointOf("0", "0"), pointOf("10", "0"), pointOf("5", "8.66"));
+
+        assertEquals(ShapeType.EQUILATERAL_TRIANGLE, processorShape.typeOf(integer));
+        assertEquals(ShapeType.EQUILATERAL_TRIANGLE, processorShape.typeOf(decimal));
+
+        var integerScalene = new TriangleShape(pointOf("0", "0"), pointOf("1000", "0"), pointOf("503", "870"));
+        var decimalScalene = new TriangleShape(pointOf("0", "0"), pointOf("10", "0"), pointOf("5.03", "8.7"));
+
+        assertEquals(ShapeType.SCALENE_TRIANGLE, processorShape.typeOf(integerScalene));
+        assertEquals(ShapeType.SCALENE_TRIANGLE, processorShape.typeOf(decimalScalene));
+    }
+
+    @Test
+    public void typeOfIntegerAndDecimalRectanglesAgreeTest() {
+        var decimal = new RectangleShape(pointOf("0", "0"), pointOf("100.001", "0"), pointOf("100.001", "100"), pointOf("0", "100"));
+        var integer = new RectangleShape(pointOf("0", "0"), pointOf("100001", "0"), pointOf("100001", "100000"), pointOf("0", "100000"));
+
+        assertEquals(ShapeType.SQUARE, processorShape.typeOf(decimal));
+        assertEquals(ShapeType.SQUARE, processorShape.typeOf(integer));
+
+        var decimalRectangle = new RectangleShape(pointOf("0", "0"), pointOf("100.1", "0"), pointOf("100.1", "100"), pointOf("0", "100"));
+        var integerRectangle = new RectangleShape(pointOf("0", "0"), pointOf("100100", "0"), pointOf("100100", "100000"), pointOf("0", "100000"));
+
+        assertEquals(ShapeType.RECTANGLE, processorShape.typeOf(decimalRectangle));
+        assertEquals(ShapeType.RECTANGLE, processorShape.typeOf(integerRectangle));
+
+        var decimalSkewed = new RectangleShape(pointOf("0", "0"), pointOf("10.5", "0"), pointOf("11.5", "10"), pointOf("1", "10"));
+        var integerSkewed = new RectangleShape(pointOf("0", "0"), pointOf("21", "0"), pointOf("23", "20"), pointOf("2", "20"));
+
+        assertThrows(InvalidShapeException.class, () -> processorShape.typeOf(decimalSkewed));
+        assertThrows(InvalidShapeException.class, () -> processorShape.typeOf(integerSkewed));
+    }
+
     @Test
     public void typeOfTriangleInvalidTest() {
         var shape = new TriangleShape(new CartesianPoint(BigDecimal.valueOf(0.0), BigDecimal.valueOf(0.0)), null, null);
         assertThrows(InvalidShapeException.class, () -> processorShape.triangleTypeOf(shape));
     }
 
+    @Test
+    public void typeOfLargeCoordinatesRectangleTest() {
+        var shape = new RectangleShape(
+                new CartesianPoint(BigDecimal.valueOf(1_000_000), BigDecimal.valueOf(1_000_000)),
+                new CartesianPoint(BigDecimal.valueOf(1_000_100), BigDecimal.valueOf(1_000_000)),
+                new CartesianPoint(BigDecimal.valueOf(1_000_100), BigDecimal.valueOf(1_000_101)),
+                new CartesianPoint(BigDecimal.valueOf(1_000_000), BigDecimal.valueOf(1_000_101))
+        );
+
+        var expectedResult = ShapeType.RECTANGLE;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void typeOfRotatedSquareTest() {
+        var shape = new RectangleShape(
+                new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(3), BigDecimal.valueOf(4)),
+                new CartesianPoint(BigDecimal.valueOf(-1), BigDecimal.valueOf(7)),
+                new CartesianPoint(BigDecimal.valueOf(-4), BigDecimal.valueOf(3))
+        );
+
+        var expectedResult = ShapeType.SQUARE;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void typeOfRhombusInvalidTest() {
+        var shape = new RectangleShape(
+                new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(5), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(8), BigDecimal.valueOf(4)),
+                new CartesianPoint(BigDecimal.valueOf(3), BigDecimal.valueOf(4))
+        );
+
+        assertThrows(InvalidShapeException.class, () -> processorShape.rectTypeOf(shape));
+    }
+
+    @Test
+    public void typeOfCollinearTriangleInvalidTest() {
+        var shape = new TriangleShape(
+                new CartesianPoint(BigDecimal.valueOf(0), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(1), BigDecimal.valueOf(0)),
+                new CartesianPoint(BigDecimal.valueOf(2), BigDecimal.valueOf(0))
+        );
+
+        assertThrows(InvalidShapeException.class, () -> processorShape.triangleTypeOf(shape));
+    }
+
     @Test
     public void typeOfNullTest() {
         assertThrows(InvalidShapeException.class, () -> processorShape.typeOf(null));
@@ -248,4 +354,117 @@ public class ProcessorShapeTest {
         assertEquals(expectedResult, result);
     }
 
+    @Test
+    public void typeOfConvexPolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 4, 6, 4, 0}, new double[]{0, 0, 2, 4, 4});
+
+        var expectedResult = ShapeType.CONVEX_POLYGON;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void typeOfConcavePolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4});
+
+        var expectedResult = ShapeType.CONCAVE_POLYGON;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void anglesOfConcavePolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4});
+
+        var expectedResult = List.of(90, 45, 270, 45, 90);
+
+        var result = processorShape.anglesOf(shape);
+
+        assertEquals(expectedResult.size(), result.size());
+        for (var i = 0; i < result.size(); i++) {
+            assertEquals(expectedResult.get(i), result.get(i).doubleValue(), 0.05);
+        }
+
+        var clockwise = new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{4, 4, 2, 0, 0});
+        assertEquals(270, processorShape.anglesOf(clockwise).get(2).doubleValue(), 0.05);
+    }
+
+    @Test
+    public void polygonCopiesItsCoordinatesTest() {
+        var x = new double[]{0, 4, 2, 4, 0};
+        var y = new double[]{0, 0, 2, 4, 4};
+        var shape = new PolygonShape(x, y);
+
+        x[2] = 5;
+
+        assertEquals(2, shape.x()[2]);
+        assertEquals(ShapeType.CONCAVE_POLYGON, processorShape.typeOf(shape));
+    }
+
+    @Test
+    public void typeOfPentagramPolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 6, -5, 5, -6}, new double[]{10, -8, 3, 3, -8});
+
+        var expectedResult = ShapeType.CONCAVE_POLYGON;
+
+        var result = processorShape.typeOf(shape);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void typeOfPolygonWithRepeatedVertexTest() {
+        var repeated = new PolygonShape(new double[]{0, 10, 12, 12, 20, 20, 0}, new double[]{0, 1, 5, 5, 10, 20, 20});
+        var distinct = new PolygonShape(new double[]{0, 10, 12, 20, 20, 0}, new double[]{0, 1, 5, 10, 20, 20});
+        var closed = new PolygonShape(new double[]{0, 4, 4, 0, 0}, new double[]{0, 0, 4, 4, 0});
+
+        assertEquals(ShapeType.CONCAVE_POLYGON, processorShape.typeOf(distinct));
+        assertEquals(ShapeType.CONCAVE_POLYGON, processorShape.typeOf(repeated));
+        assertEquals(ShapeType.CONVEX_POLYGON, processorShape.typeOf(closed));
+    }
+
+    @Test
+    public void typeOfPolygonInvalidTest() {
+        var shape = new PolygonShape(new double[]{0, 1, 2}, new double[]{0, 0, 0});
+        assertThrows(InvalidShapeException.class, () -> processorShape.typeOf(shape));
+    }
+
+    @Test
+    public void areaOfPolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 4, 2, 4, 0}, new double[]{0, 0, 2, 4, 4});
+
+        var expectedResult = BigDecimal.valueOf(12);
+
+        var result = processorShape.areaOf(shape);
+
+        assertEquals(0, expectedResult.compareTo(result));
+    }
+
+    @Test
+    public void perimeterOfPolygonTest() {
+        var shape = new PolygonShape(new double[]{0, 3, 3, 0}, new double[]{0, 0, 4, 4});
+
+        var expectedResult = BigDecimal.valueOf(14);
+
+        var result = processorShape.perimeterOf(shape);
+
+        assertEquals(0, expectedResult.compareTo(result));
+    }
+
+    @Test
+    public void orientationOfPolygonTest() {
+        var counterClockwise = new PolygonShape(new double[]{0, 3, 3, 0}, new double[]{0, 0, 4, 4});
+        var clockwise = new PolygonShape(new double[]{0, 0, 3, 3}, new double[]{0, 4, 4, 0});
+
+        assertEquals(Orientation.COUNTER_CLOCKWISE, processorShape.orientationOf(counterClockwise));
+        assertEquals(Orientation.CLOCKWISE, processorShape.orientationOf(clockwise));
+    }
+
+    private static CartesianPoint pointOf(final String x, final String y) {
+        return new CartesianPoint(new BigDecimal(x), new BigDecimal(y));
+    }
 }
@@ -0,0 +1,147 @@
+package com.herculanoleo.processor;
+
+import com.herculanoleo.models.shape.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShapeFlowProcessorTest {
+
+    private static final int SHAPES = 5_000;
+
+    @Test
+    public void orderedBackpressureTest() throws Exception {
+        var produced = new AtomicInteger();
+        var received = new CopyOnWriteArrayList<ShapeResult>();
+        var maxAhead = new AtomicInteger();
+        var done = new CompletableFuture<Void>();
+
+        try (var processor = new ShapeFlowProcessor(new ProcessorShape(), Executors.newVirtualThreadPerTaskExecutor(), 16, 2, true, Duration.ofMillis(5));
+             var source = new SubmissionPublisher<Shape>(ForkJoinPool.commonPool(), 8)) {
+            source.subscribe(processor);
+            processor.subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(final ShapeResult item) {
+                    received.add(item);
+                    maxAhead.accumulateAndGet(produced.get() - received.size(), Math::max);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    done.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    done.complete(null);
+                }
+            });
+
+            for (var i = 0; i < SHAPES; i++) {
+                source.submit(squareOf(i + 1));
+                produced.incrementAndGet();
+            }
+            source.close();
+
+            done.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(SHAPES, received.size());
+        for (var i = 0; i < SHAPES; i++) {
+            assertEquals(squareOf(i + 1), received.get(i).shape());
+            assertEquals(ShapeType.SQUARE, received.get(i).type());
+        }
+
+        // source buffer + upstream demand + downstream buffer
+        assertTrue(maxAhead.get() <= 8 + 16 * 2 + 16 * 2 + 1, String.format("%s shapes ahead", maxAhead.get()));
+    }
+
+    @Test
+    public void unorderedTest() throws Exception {
+        var processor = new ShapeFlowProcessor(false);
+        var results = new CopyOnWriteArrayList<ShapeResult>();
+
+        try (processor; var source = new SubmissionPublisher<Shape>()) {
+            source.subscribe(processor);
+            var consumed = processor.consume(results::add);
+
+            List.of(squareOf(1), squareOf(2), squareOf(3)).forEach(source::submit);
+            source.close();
+
+            consumed.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    public void lateSubscriberTest() throws Exception {
+        var results = new CopyOnWriteArrayList<ShapeResult>();
+
+        try (var processor = new ShapeFlowProcessor(new ProcessorShape(), Executors.newVirtualThreadPerTaskExecutor(), 4, 1, true, Duration.ofMillis(5));
+             var source = new SubmissionPublisher<Shape>()) {
+            source.subscribe(processor);
+            List.of(squareOf(1), squareOf(2), squareOf(3)).forEach(source::submit);
+            source.close();
+
+            Thread.sleep(Duration.ofMillis(200));
+            var consumed = processor.consume(results::add);
+
+            consumed.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(List.of(squareOf(1), squareOf(2), squareOf(3)), results.stream().map(ShapeResult::shape).toList());
+    }
+
+    @Test
+    public void boundedBatchExecutorTest() throws Exception {
+        var batchThreads = Executors.newFixedThreadPool(1, Thread.ofPlatform().name("shape-batch").factory());
+        var results = new CopyOnWriteArrayList<ShapeResult>();
+        var deliveredOnBatchThread = new AtomicInteger();
+
+        try (var processor = new ShapeFlowProcessor(new ProcessorShape(), batchThreads, 4, 1, true, Duration.ofMillis(5));
+             var source = new SubmissionPublisher<Shape>(ForkJoinPool.commonPool(), 8)) {
+            source.subscribe(processor);
+            var consumed = processor.consume(result -> {
+                if (Thread.currentThread().getName().equals("shape-batch")) {
+                    deliveredOnBatchThread.incrementAndGet();
+                }
+                results.add(result);
+            });
+
+            for (var i = 0; i < 500; i++) {
+                source.submit(squareOf(i + 1));
+            }
+            source.close();
+
+            consumed.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(500, results.size());
+        assertEquals(0, deliveredOnBatchThread.get());
+    }
+
+    private static RectangleShape squareOf(final long side) {
+        return new RectangleShape(pointOf(0, 0), pointOf(side, 0), pointOf(side, side), pointOf(0, side));
+    }
+
+    private static CartesianPoint pointOf(final long x, final long y) {
+        return new CartesianPoint(BigDecimal.valueOf(x), BigDecimal.valueOf(y));
+    }
+
+}
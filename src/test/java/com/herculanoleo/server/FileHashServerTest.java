@@ -0,0 +1,105 @@
+package com.herculanoleo.server;
+
+import com.herculanoleo.processor.CachingProcessorFile;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileHashServerTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void hashTest() throws Exception {
+        var file = Files.writeString(directory.resolve("a.txt"), "content");
+        Files.writeString(Files.createDirectory(directory.resolve("sub")).resolve("b.txt"), "other");
+
+        var processorFile = new CachingProcessorFile(16);
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+        try (var server = new FileHashServer(address, processorFile, "secret").start(); var client = HttpClient.newHttpClient()) {
+            var base = String.format("http://127.0.0.1:%s%s", server.address().getPort(), FileHashServer.HASH_PATH);
+
+            var single = client.send(
+                    HttpRequest.newBuilder(URI.create(base + "?path=" + URLEncoder.encode(file.toString(), StandardCharsets.UTF_8))).header("Authorization", "Bearer secret").GET().build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+
+            var expectedHash = DigestUtils.sha256Hex(DigestUtils.sha256Hex("content"));
+            assertEquals(200, single.statusCode());
+            assertTrue(single.body().startsWith("true|SHA256:" + expectedHash + "|" + file.toAbsolutePath()), single.body());
+
+            var batch = client.send(
+                    HttpRequest.newBuilder(URI.create(base)).header("Authorization", "Bearer secret").POST(HttpRequest.BodyPublishers.ofString(directory + "\n")).build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+
+            assertEquals(2, batch.body().lines().count());
+            assertEquals(1, processorFile.stats().hitCount());
+
+            var missingPath = client.send(HttpRequest.newBuilder(URI.create(base)).header("Authorization", "Bearer secret").GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, missingPath.statusCode());
+        }
+    }
+
+    @Test
+    public void rejectUnauthorizedTest() throws Exception {
+        var file = Files.writeString(directory.resolve("a.txt"), "content");
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+        try (var server = new FileHashServer(address, new CachingProcessorFile(16), "secret").start(); var client = HttpClient.newHttpClient()) {
+            var uri = URI.create(String.format("http://127.0.0.1:%s%s?path=%s", server.address().getPort(), FileHashServer.HASH_PATH, file));
+
+            assertEquals(401, client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(401, client.send(HttpRequest.newBuilder(uri).header("Authorization", "Bearer wrong").GET().build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            assertEquals("HTTP/1.1 403 Forbidden", statusLineOf(server, "attacker.example", "Bearer secret"));
+            assertEquals("HTTP/1.1 200 OK", statusLineOf(server, "localhost:" + server.address().getPort(), "Bearer secret"));
+        }
+    }
+
+    @Test
+    public void tokenFileTest() throws Exception {
+        var tokenFile = directory.resolve("config/hash.token");
+
+        var token = FileHashServer.tokenOf(tokenFile);
+        assertEquals(64, token.length());
+        assertEquals(token, FileHashServer.tokenOf(tokenFile));
+
+        if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+
+            Files.setPosixFilePermissions(tokenFile, PosixFilePermissions.fromString("rw-r--r--"));
+            assertThrows(IOException.class, () -> FileHashServer.tokenOf(tokenFile));
+        }
+    }
+
+    /*
+        The HttpClient does not let the Host header be set, the request is written by hand
+    */
+    private String statusLineOf(final FileHashServer server, final String host, final String authorization) throws IOException {
+        try (var socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            var request = String.format("GET %s?path=%s HTTP/1.1\r\nHost: %s\r\nAuthorization: %s\r\nConnection: close\r\n\r\n",
+                    FileHashServer.HASH_PATH, URLEncoder.encode(directory.resolve("a.txt").toString(), StandardCharsets.UTF_8), host, authorization);
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).lines().findFirst().orElse("");
+        }
+    }
+}
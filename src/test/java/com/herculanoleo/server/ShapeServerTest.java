@@ -0,0 +1,117 @@
+package com.herculanoleo.server;
+
+import com.herculanoleo.models.shape.Shape;
+import com.herculanoleo.models.shape.ShapeDetails;
+import com.herculanoleo.processor.ProcessorShape;
+import com.herculanoleo.processor.ShapeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShapeServerTest {
+
+    private ShapeServer server;
+
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        var batcher = new ShapeBatcher(new ProcessorShape(), 2, 64);
+        server = new ShapeServer(new InetSocketAddress("127.0.0.1", 0), batcher, new ShapeParser()).start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void singleAndBatchTest() throws Exception {
+        assertEquals("0|true|SQUARE|4.00|2.0;2.0;2.0;2.0|90.00;90.00;90.00;90.00\n", post("rectangle,0,0,2,0,2,2,0,2").body());
+
+        var batch = post("""
+                # shapes
+                circle,0,0,0,2
+                triangle,0,0,4,0,0,3
+
+                triangle,0,0,1,1,2,2
+                hexagon,0,0
+                """);
+
+        assertEquals(200, batch.statusCode());
+        assertEquals("""
+                0|true|CIRCLE|12.6|2.0|
+                1|true|SCALENE_TRIANGLE|6|4.0;5.0;3.0|90.00;36.87;53.13
+                2|false|null|null||
+                3|false|null|null||
+                """, batch.body());
+    }
+
+    @Test
+    public void concurrentRequestsTest() {
+        var responses = new ArrayList<CompletableFuture<HttpResponse<String>>>();
+        for (var i = 0; i < 500; i++) {
+            var request = HttpRequest.newBuilder(uriOf())
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format("rectangle,%s,0,%s,0,%s,3,%s,3", i, i + 5, i + 5, i)))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (var response : responses) {
+            assertEquals("0|true|RECTANGLE|15.0|5.0;3.0;5.0;3.0|90.00;90.00;90.00;90.00\n", response.join().body());
+        }
+    }
+
+    @Test
+    public void methodNotAllowedTest() throws Exception {
+        var response = client.send(HttpRequest.newBuilder(uriOf()).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+
+    @Test
+    public void processingFailureTest() throws Exception {
+        server.close();
+        var failing = new ProcessorShape() {
+            @Override
+            public ShapeDetails detailsOf(final Shape shape) {
+                throw new IllegalStateException("Broken processor");
+            }
+        };
+        server = new ShapeServer(new InetSocketAddress("127.0.0.1", 0), new ShapeBatcher(failing, 1, 64), new ShapeParser()).start();
+
+        assertEquals(500, post("rectangle,0,0,2,0,2,2,0,2").statusCode());
+    }
+
+    @Test
+    public void submitAfterCloseTest() {
+        var batcher = new ShapeBatcher(new ProcessorShape(), 1, 64);
+        batcher.close();
+
+        var future = batcher.submit(List.of());
+        var ex = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+    }
+
+    private HttpResponse<String> post(final String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uriOf()).POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uriOf() {
+        return URI.create(String.format("http://127.0.0.1:%s%s", server.address().getPort(), ShapeServer.SHAPES_PATH));
+    }
+}